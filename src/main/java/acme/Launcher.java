@@ -23,7 +23,6 @@ import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
 import org.apache.commons.lang3.ArrayUtils;
-import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
@@ -41,6 +40,7 @@ import acme.internals.components.database.DatabasePopulator;
 import acme.internals.helpers.FactoryHelper;
 import acme.internals.helpers.ReflectionHelper;
 import acme.internals.helpers.ThrowableHelper;
+import acme.internals.helpers.ValidationHelper;
 import lombok.CustomLog;
 
 @SpringBootApplication
@@ -66,6 +66,7 @@ public class Launcher extends SpringBootServletInitializer {
 			FactoryHelper.initialise(context);
 			MomentHelper.initialise();
 			RandomHelper.initialise();
+			ValidationHelper.initialise();
 			Launcher.launchWorker(commandLine, context);
 		} catch (final Throwable oops) {
 			message = ThrowableHelper.toString(oops);
@@ -98,6 +99,7 @@ public class Launcher extends SpringBootServletInitializer {
 		FactoryHelper.initialise(context);
 		MomentHelper.initialise();
 		RandomHelper.initialise();
+		ValidationHelper.initialise();
 		Launcher.logger.debug("Starting servlet...");
 	}
 
@@ -275,15 +277,20 @@ public class Launcher extends SpringBootServletInitializer {
 
 	private static void logContextInformation() {
 		List<String> classPathEntries;
-		List<BeanDefinition> entities;
+		List<Class<?>> entities;
 
-		classPathEntries = ReflectionHelper.findClassPathEntries();
-		for (final String entry : classPathEntries)
-			Launcher.logger.trace("Found classpath entry '{}'", entry);
+		// HINT: this information is only logged at the trace level, so there is no point in
+		// HINT+ looking for the entities otherwise.
 
-		entities = ReflectionHelper.findEntities();
-		for (final BeanDefinition entity : entities)
-			Launcher.logger.trace("Found entity class '{}", entity.getBeanClassName());
+		if (Launcher.logger.isTraceEnabled()) {
+			classPathEntries = ReflectionHelper.findClassPathEntries();
+			for (final String entry : classPathEntries)
+				Launcher.logger.trace("Found classpath entry '{}'", entry);
+
+			entities = ReflectionHelper.findEntities();
+			for (final Class<?> entity : entities)
+				Launcher.logger.trace("Found entity class '{}'", entity.getName());
+		}
 	}
 
 	private static void showUsage() {
@@ -13,33 +13,48 @@
 package acme.client.controllers;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
-import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.Hibernate;
 import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
-import org.springframework.validation.BeanPropertyBindingResult;
-import org.springframework.validation.Validator;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.WebUtils;
 
+import acme.client.data.AbstractEntity;
 import acme.client.data.AbstractObject;
 import acme.client.data.AbstractRole;
 import acme.client.data.accounts.Any;
@@ -53,15 +68,19 @@ import acme.client.helpers.Assert;
 import acme.client.helpers.MomentHelper;
 import acme.client.helpers.StringHelper;
 import acme.client.services.AbstractService;
+import acme.client.services.LifecycleMode;
 import acme.internals.components.database.DatabaseManager;
 import acme.internals.components.exceptions.PassThroughException;
+import acme.internals.components.metrics.ResponseCacheMetrics;
+import acme.internals.components.tiles.ViewModel;
 import acme.internals.controllers.CommandManager;
 import acme.internals.controllers.ControllerMetadata;
 import acme.internals.helpers.EnvironmentHelper;
-import acme.internals.helpers.ErrorsHelper;
 import acme.internals.helpers.FactoryHelper;
+import acme.internals.helpers.JsonHelper;
 import acme.internals.helpers.ReflectionHelper;
 import acme.internals.helpers.ServletHelper;
+import acme.internals.helpers.ValidationHelper;
 import acme.internals.services.PanicService;
 
 @Controller
@@ -82,6 +101,9 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 	@Autowired
 	private RequestMappingHandlerMapping	handlerMapper;
 
+	@Autowired
+	private ResponseCacheMetrics			responseCacheMetrics;
+
 	// Constructors -----------------------------------------------------------
 
 
@@ -127,12 +149,17 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		String method, command;
 		Locale locale;
 		AbstractService<R, O> service;
+		LifecycleMode mode;
+		boolean hooksInside, notModified, notified, json;
 
 		// HINT: let us initialise some variables.
 
 		result = null;
 		method = null;
 		service = null;
+		notModified = false;
+		notified = false;
+		json = ServletHelper.isJsonRequested(httpServletRequest);
 
 		try {
 			// HINT: get some stuff from the servlet.
@@ -169,13 +196,16 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 			// HINT: let us dispatch the request building on the HTTP method used.
 
 			if (service.getRequest().getMethod().equals("GET")) {
-				service.load();
-				this.apply(service, service::unbind, service::unbind);
-				this.redirect(service);
+				notModified = this.checkNotModified(service, httpServletRequest, httpServletResponse);
+				if (!notModified) {
+					service.load();
+					this.apply(service, service::unbind, service::unbind);
+					this.redirect(service);
+				}
 			} else {
 				assert service.getRequest().getMethod().equals("POST");
 				service.load();
-				this.detachPersistenceContext(); // HINT: prevent J2EE from trying to flush dirty objects when not appropriate!
+				this.detachBoundObjects(service); // HINT: prevent J2EE from trying to flush dirty objects when not appropriate!
 				this.apply(service, service::bind, service::bind);
 				if (!this.commandManager.getSuperCommand(service.getRequest().getCommand()).equals("delete"))
 					this.validate(service);
@@ -187,6 +217,16 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 				this.redirect(service);
 			}
 
+			// HINT: in single-transaction mode, the workflow is finalised within the current transaction,
+			// HINT+ unless the service states that its hooks do not require a transaction at all.
+
+			mode = service.getLifecycleMode();
+			hooksInside = mode.equals(LifecycleMode.SINGLE) && service.isOutcomeTransactional();
+			if (hooksInside && !notModified) {
+				this.notifyOutcome(service, false);
+				notified = true;
+			}
+
 			// HINT: let us commit or roll the transaction back depending on whether there are errors or not in the response.
 
 			if (!service.getBuffer().getErrors().hasErrors())
@@ -194,14 +234,12 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 			else
 				this.databaseManager.rollbackTransaction();
 
-			// HINT: let us finalise the workflow depending on whether there are errors or not in the response.
+			// HINT: otherwise, let us finalise the workflow depending on whether there are errors or not in the response.
 
-			this.databaseManager.startTransaction();
-			if (!service.getBuffer().getErrors().hasErrors())
-				service.onSuccess();
-			else
-				service.onFailure();
-			this.databaseManager.commitTransaction();
+			if (!hooksInside && !notModified) {
+				this.notifyOutcome(service, mode.equals(LifecycleMode.SPLIT) && service.isOutcomeTransactional());
+				notified = true;
+			}
 		} catch (final Throwable oops) {
 			// HINT: let us try to roll the active transaction back, if any.
 
@@ -212,25 +250,45 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 				;
 			}
 
-			// HINT: let us try to notify the service of the failure.
+			// HINT: let us try to notify the service of the failure, unless it was already notified
+			// HINT+ of the outcome successfully; "onFailure" does not run after "onSuccess" returns
+			// HINT+ if, e.g., the transaction in which the latter ran fails to commit, but it still
+			// HINT+ runs if "onSuccess" itself throws an exception.
 
 			try {
+				boolean transactional;
+
 				assert service != null;
-				this.databaseManager.startTransaction();
 				service.getResponse().setOops(oops);
-				service.onFailure();
-				this.databaseManager.commitTransaction();
+				if (!notified) {
+					transactional = service.isOutcomeTransactional();
+					if (transactional)
+						this.databaseManager.startTransaction();
+					service.onFailure();
+					if (transactional)
+						this.databaseManager.commitTransaction();
+				}
 			} catch (final Throwable ouch) {
 				;
 			}
 		} finally {
-			// HINT: let us build the resulting model-and-view object, if possible.
+			// HINT: let us build the resulting model-and-view object, if possible; there is
+			// HINT+ nothing to render if the client already has an up-to-date copy of the page,
+			// HINT+ and JSON responses are written right away, without rendering any views.
 
 			assert service != null;
-			result = this.buildResult(service);
-
-			// HINT: and let us finalise the service.
-
+			if (notModified && service.getResponse().getOops() == null)
+				result = null;
+			else if (json) {
+				this.writeJson(service, httpServletResponse);
+				result = null;
+			} else
+				result = this.buildResult(service);
+
+			// HINT: and let us finalise the service; the request is detached from the servlet
+			// HINT+ request, since it may be rendered later by the debug panel.
+
+			service.getRequest().detach();
 			service.finalise();
 		}
 
@@ -249,7 +307,7 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 
 		// HINT: check that there is a result.
 
-		assert result != null;
+		assert result != null || notModified || json;
 
 		// HINT: finally, let us return a result to the servlet.
 
@@ -264,6 +322,9 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		Method handler;
 		String path;
 
+		// HINT: every command can be served as HTML or as JSON, which is negotiated by means of
+		// HINT+ the Accept header; JSON can also be requested using a ".json" extension.
+
 		try {
 			handler = AbstractController.class.getMethod("handler", HttpServletRequest.class, HttpServletResponse.class);
 			path = String.format("%s%s", this.metadata.getRequestPath(), command);
@@ -271,7 +332,15 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 				RequestMappingInfo. //
 					paths(path). //
 					methods(RequestMethod.GET, RequestMethod.POST). //
-					produces(MediaType.TEXT_HTML_VALUE). //
+					produces(MediaType.TEXT_HTML_VALUE, MediaType.APPLICATION_JSON_VALUE). //
+					build(),
+				this, //
+				handler //
+			);
+			this.handlerMapper.registerMapping( //
+				RequestMappingInfo. //
+					paths(String.format("%s.json", path)). //
+					methods(RequestMethod.GET, RequestMethod.POST). //
 					build(),
 				this, //
 				handler //
@@ -310,6 +379,76 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		return result;
 	}
 
+	protected boolean checkNotModified(final AbstractService<R, O> service, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse) {
+		assert service != null;
+		assert httpServletRequest != null;
+		assert httpServletResponse != null;
+
+		boolean result;
+		String fingerprint, entityTag;
+		ServletWebRequest webRequest;
+
+		fingerprint = service.computeFingerprint();
+		if (fingerprint == null)
+			result = false;
+		else {
+			// HINT: the page is private to the principal and must be revalidated on every visit;
+			// HINT+ otherwise, Spring Security would forbid the browser to store it at all.
+			entityTag = this.computeEntityTag(service, httpServletRequest, fingerprint);
+			httpServletResponse.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+			httpServletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+			webRequest = new ServletWebRequest(httpServletRequest, httpServletResponse);
+			result = webRequest.checkNotModified(entityTag);
+			httpServletRequest.setAttribute("acme.response-cache", result ? "hit" : "miss");
+			if (result)
+				this.responseCacheMetrics.recordHit();
+			else
+				this.responseCacheMetrics.recordMiss();
+		}
+
+		return result;
+	}
+
+	protected String computeEntityTag(final AbstractService<R, O> service, final HttpServletRequest httpServletRequest, final String fingerprint) {
+		assert service != null;
+		assert httpServletRequest != null;
+		assert fingerprint != null;
+
+		String result;
+		StringBuilder key;
+		HttpSession session;
+		Cookie debug;
+		MessageDigest digest;
+		byte[] hash;
+
+		// HINT: a page does not only depend on the data shown, but also on the principal and their
+		// HINT+ active role, the locale, the session (whose CSRF token is embedded in forms), the
+		// HINT+ debug settings, and the version of the application.
+
+		session = httpServletRequest.getSession(false);
+		debug = WebUtils.getCookie(httpServletRequest, "debug");
+
+		key = new StringBuilder();
+		key.append(fingerprint);
+		key.append('|').append(service.getRequest().getPrincipal().getUsername());
+		key.append('|').append(service.getRequest().getPrincipal().getActiveRole().getName());
+		key.append('|').append(service.getRequest().getLocale());
+		key.append('|').append(session == null ? "" : session.getId());
+		key.append('|').append(debug == null ? "" : debug.getValue());
+		key.append('|').append(EnvironmentHelper.getProperty("acme.application.versioned-name", ""));
+		key.append('|').append(ServletHelper.isJsonRequested(httpServletRequest) ? "json" : "html");
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException oops) {
+			throw new PassThroughException(oops);
+		}
+		hash = digest.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+		result = String.format("W/\"%s\"", HexFormat.of().formatHex(hash, 0, 16));
+
+		return result;
+	}
+
 	protected void redirect(final AbstractService<R, O> service) {
 		assert service != null;
 
@@ -365,26 +504,34 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		collectionMethod.accept((Collection<O>) objects);
 	}
 
+	protected void notifyOutcome(final AbstractService<R, O> service, final boolean newTransaction) {
+		assert service != null;
+
+		if (newTransaction)
+			this.databaseManager.startTransaction();
+		if (!service.getBuffer().getErrors().hasErrors())
+			service.onSuccess();
+		else
+			service.onFailure();
+		if (newTransaction)
+			this.databaseManager.commitTransaction();
+	}
+
 	protected void validate(final AbstractService<R, O> service) {
 		assert service != null;
 
+		Buffer buffer;
 		Dataset data;
 		Errors errors;
-		Validator validator;
-
-		data = service.getBuffer().getData();
-		errors = service.getBuffer().getErrors();
-		validator = FactoryHelper.getValidator();
+		boolean propertyValidation;
 
-		for (final Object datum : data.values()) {
-			String key;
-			BeanPropertyBindingResult bindingResult;
+		buffer = service.getBuffer();
+		data = buffer.getData();
+		errors = buffer.getErrors();
+		propertyValidation = service.isPropertyValidationEnabled();
 
-			key = StringHelper.toIdentity(datum);
-			bindingResult = new BeanPropertyBindingResult(datum, key);
-			validator.validate(datum, bindingResult);
-			ErrorsHelper.transferErrors(bindingResult, errors);
-		}
+		for (final Object datum : data.values())
+			ValidationHelper.validate(datum, propertyValidation ? buffer.getBoundProperties(datum) : null, errors);
 	}
 
 	protected ModelAndView buildResult(final AbstractService<R, O> service) {
@@ -432,14 +579,22 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		return result;
 	}
 
-	protected Map<String, Object> getUserData(final AbstractService<R, O> service) {
+	protected void writeJson(final AbstractService<R, O> service, final HttpServletResponse httpServletResponse) {
 		assert service != null;
+		assert httpServletResponse != null;
+
+		ViewModel viewModel;
+
+		viewModel = this.getViewModel(service);
+		JsonHelper.writeResponse(httpServletResponse, service.getRequest().getCommand(), service.getResponse(), viewModel, service.getBuffer().getErrors());
+	}
+
+	protected Map<String, Object> getUserData(final AbstractService<R, O> service, final ViewModel viewModel) {
+		assert service != null;
+		assert viewModel != null;
 
 		Map<String, Object> result;
 		Collection<Entry<String, Object>> globals;
-		Dataset dataset;
-		boolean mustIndex;
-		int index;
 
 		result = new LinkedHashMap<String, Object>();
 
@@ -453,23 +608,26 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 			result.put(key, object);
 		}
 
+		// HINT: listings get their data as a view model only; the other views, e.g., forms,
+		// HINT+ still get them as flattened attributes, too.
+
+		if (viewModel.isFlattened())
+			result.putAll(viewModel.computeAttributes());
+
+		return result;
+	}
+
+	protected ViewModel getViewModel(final AbstractService<R, O> service) {
+		assert service != null;
+
+		ViewModel result;
+		Dataset dataset;
+		boolean listing, mustIndex;
+
 		dataset = service.getResponse().getData();
-		mustIndex = dataset.size() >= 2 || this.commandManager.getSuperCommand(service.getRequest().getCommand()).equals("list");
-		index = 0;
-		for (final Object datasets : dataset.values()) {
-			assert ReflectionHelper.isAssignable(Dataset.class, datasets) : //
-				String.format("Your response data contains datum '%s' of type '%s', but it must be of type '%s'.", datasets.toString(), datasets.getClass().getName(), Dataset.class.getName());
-			for (final Entry<String, Object> entry : ((Dataset) datasets).entrySet()) {
-				String attribute;
-
-				if (mustIndex)
-					attribute = String.format("%s[%s]", entry.getKey(), index);
-				else
-					attribute = String.format("%s", entry.getKey());
-				result.put(attribute, entry.getValue());
-			}
-			index++;
-		}
+		listing = this.commandManager.getSuperCommand(service.getRequest().getCommand()).equals("list");
+		mustIndex = dataset.size() >= 2 || listing;
+		result = new ViewModel(dataset.values(), mustIndex, !listing);
 
 		return result;
 	}
@@ -478,15 +636,7 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		assert target != null;
 		assert source != null;
 
-		for (final Entry<String, Object> entry : source.entrySet()) {
-			String key;
-			Object object;
-
-			key = entry.getKey();
-			object = entry.getValue();
-			target.addObject(key, object);
-			target.addObject(key, entry.getValue());
-		}
+		target.addAllObjects(source);
 	}
 
 	protected void transferUserData(final AbstractService<R, O> service, final ModelAndView target) {
@@ -494,12 +644,13 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		assert target != null;
 
 		Map<String, Object> data;
-		Dataset dataset;
+		ViewModel viewModel;
 
-		data = this.getUserData(service);
+		viewModel = this.getViewModel(service);
+		data = this.getUserData(service, viewModel);
 		this.transferMap(target, data);
-		dataset = service.getResponse().getData();
-		target.addObject("$number$data", dataset.size());
+		target.addObject("$data", viewModel);
+		target.addObject("$number$data", viewModel.size());
 	}
 
 	protected Map<String, Object> getUserErrors(final AbstractService<R, O> service) {
@@ -534,21 +685,47 @@ public abstract class AbstractController<R extends AbstractRole, O extends Abstr
 		this.transferMap(target, errors);
 	}
 
-	protected void detachPersistenceContext() {
+	protected void detachBoundObjects(final AbstractService<R, O> service) {
+		assert service != null;
+
 		EntityManager entityManager;
 		SessionImplementor session;
-		org.hibernate.engine.spi.PersistenceContext context;
-		Entry<Object, EntityEntry>[] entries;
-		Object entity;
+		Deque<Object> pending;
+		Set<Object> visited;
+
+		// HINT: only the objects that are about to be bound are detached, since they are the only
+		// HINT+ ones that binding can make dirty; the other entities that the service has loaded,
+		// HINT+ e.g., reference entities or fetched collections, are left alone.  The entities that
+		// HINT+ are reachable from the bound objects through to-one associations are detached,
+		// HINT+ too, since nested properties are bound through them.
 
 		entityManager = FactoryHelper.getEntityManager();
 		session = entityManager.unwrap(SessionImplementor.class);
-		context = session.getPersistenceContext();
-		entries = context.reentrantSafeEntityEntries();
-
-		for (final Entry<Object, EntityEntry> entry : entries) {
-			entity = entry.getKey();
-			entityManager.detach(entity);
+		pending = new ArrayDeque<Object>();
+		visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+		for (final Object object : service.getBuffer().getData().values())
+			if (object instanceof AbstractEntity)
+				pending.push(object);
+
+		while (!pending.isEmpty()) {
+			Object entity;
+			EntityPersister persister;
+			Type[] types;
+			Object[] values;
+
+			entity = pending.pop();
+			if (visited.add(entity) && session.contains(entity)) {
+				if (Hibernate.isInitialized(entity)) {
+					persister = session.getEntityPersister(null, entity);
+					types = persister.getPropertyTypes();
+					values = persister.getPropertyValues(Hibernate.unproxy(entity));
+					for (int index = 0; index < types.length; index++)
+						if (types[index].isEntityType() && values[index] != null)
+							pending.push(values[index]);
+				}
+				entityManager.detach(entity);
+			}
 		}
 	}
 
@@ -28,6 +28,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Cached
 @Getter
 @Setter
 @ToString(of = {
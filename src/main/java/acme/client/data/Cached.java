@@ -0,0 +1,38 @@
+/*
+ * Cached.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.client.data;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cached {
+
+	// HINT: entities annotated with @Cached are kept in the second-level cache of the framework,
+	// HINT+ which is intended for reference data that is read often and changes seldom.  The
+	// HINT+ annotation is inherited, so annotating an abstract entity caches all of its subclasses.
+	// HINT+ Negative values mean that the defaults in the configuration properties apply; zero
+	// HINT+ means that the cache is not bounded or that its entries do not expire, respectively.
+
+	int maxEntries() default -1;
+
+	int timeToLive() default -1; // HINT: in seconds
+
+}
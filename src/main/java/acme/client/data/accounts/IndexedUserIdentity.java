@@ -0,0 +1,79 @@
+/*
+ * IndexedUserIdentity.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.client.data.accounts;
+
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Embeddable;
+
+import acme.client.data.AbstractDatatype;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Embeddable
+@Access(AccessType.FIELD)
+@Getter
+@Setter
+@ToString
+public class IndexedUserIdentity extends AbstractDatatype {
+
+	// HINT: this datatype stores the default attributes of a user identity in regular
+	// HINT+ columns, which can be indexed, searched, and sorted.  It is not intended to be
+	// HINT+ used directly; please, use UserAccount::getIdentity instead.
+
+	// Serialisation identifier -----------------------------------------------
+
+	private static final long	serialVersionUID	= 1L;
+
+	// Attributes -------------------------------------------------------------
+
+	private String				name;
+
+	private String				surname;
+
+	private String				email;
+
+	// Business methods -------------------------------------------------------
+
+
+	public static IndexedUserIdentity from(final DefaultUserIdentity identity) {
+		assert identity != null;
+
+		IndexedUserIdentity result;
+
+		result = new IndexedUserIdentity();
+		result.setName(identity.getName());
+		result.setSurname(identity.getSurname());
+		result.setEmail(identity.getEmail());
+
+		return result;
+	}
+
+	public void transferTo(final DefaultUserIdentity identity) {
+		assert identity != null;
+
+		identity.setName(this.name);
+		identity.setSurname(this.surname);
+		identity.setEmail(this.email);
+	}
+
+	public boolean isEmpty() {
+		boolean result;
+
+		result = this.name == null && this.surname == null && this.email == null;
+
+		return result;
+	}
+
+}
@@ -16,7 +16,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
 import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.Index;
 import javax.persistence.Lob;
@@ -30,20 +35,25 @@ import org.hibernate.validator.constraints.Length;
 
 import acme.client.data.AbstractEntity;
 import acme.client.data.AbstractRole;
+import acme.client.data.Cached;
 import acme.client.helpers.StringHelper;
 import acme.internals.helpers.PasswordHelper;
+import acme.internals.helpers.UserIdentityHelper;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Cached
 @Getter
 @Setter
 @ToString(of = {
 	"username"
 })
 @Table(indexes = {
-	@Index(columnList = "username", unique = true)
+	@Index(columnList = "username", unique = true), //
+	@Index(columnList = "identity_surname, identity_name"), //
+	@Index(columnList = "identity_email")
 })
 public class UserAccount extends AbstractEntity {
 
@@ -78,12 +88,88 @@ public class UserAccount extends AbstractEntity {
 
 	private boolean				enabled;
 
-	// HINT: the user identity must be serialised as a blob to allow developers to 
-	// HINT+ redefine it in projects that use the framework.
+	// HINT: the user identity is not persisted as a whole.  Its default attributes are stored
+	// HINT+ in regular columns, which can be indexed and read without deserialising anything.
+	// HINT+ Identities that are redefined in projects that use the framework must still be
+	// HINT+ serialised as a blob, but that blob is null for the default identity class. 
+	// HINT+ Rows whose identity was serialised by former versions are migrated as soon as they
+	// HINT+ are loaded and flushed again; see UserIdentityMigrator, too.
+
+	@Transient
+	private DefaultUserIdentity	identity;
+
+	@Transient
+	private IndexedUserIdentity	indexedIdentity;
+
+	@Transient
+	private DefaultUserIdentity	extendedIdentity;
+
+
 	@Valid
+	public DefaultUserIdentity getIdentity() {
+		if (this.identity == null && (this.indexedIdentity != null || this.extendedIdentity != null)) {
+			this.identity = this.extendedIdentity != null ? this.extendedIdentity : UserIdentityHelper.createBlankIdentity();
+			if (this.indexedIdentity != null && !this.indexedIdentity.isEmpty())
+				this.indexedIdentity.transferTo(this.identity);
+		}
+
+		return this.identity;
+	}
+
+	public void setIdentity(final DefaultUserIdentity identity) {
+		// HINT: identity can be null
+
+		this.identity = identity;
+	}
+
+	@Embedded
+	@Access(AccessType.PROPERTY)
+	@AttributeOverrides({
+		@AttributeOverride(name = "name", column = @Column(name = "identity_name")), //
+		@AttributeOverride(name = "surname", column = @Column(name = "identity_surname")), //
+		@AttributeOverride(name = "email", column = @Column(name = "identity_email"))
+	})
+	protected IndexedUserIdentity getIndexedIdentity() {
+		IndexedUserIdentity result;
+		DefaultUserIdentity current;
+
+		current = this.getIdentity();
+		result = current == null ? this.indexedIdentity : IndexedUserIdentity.from(current);
+
+		return result;
+	}
+
+	protected void setIndexedIdentity(final IndexedUserIdentity indexedIdentity) {
+		// HINT: indexedIdentity can be null
+
+		this.indexedIdentity = indexedIdentity;
+		this.identity = null;
+	}
+
 	@Lob
-	@Column(columnDefinition = "blob")
-	private DefaultUserIdentity	identity;
+	@Column(name = "identity", columnDefinition = "blob")
+	@Access(AccessType.PROPERTY)
+	protected DefaultUserIdentity getExtendedIdentity() {
+		DefaultUserIdentity result;
+		DefaultUserIdentity current;
+
+		current = this.getIdentity();
+		if (current == null)
+			result = this.extendedIdentity;
+		else if (current.getClass().equals(DefaultUserIdentity.class))
+			result = null;
+		else
+			result = current;
+
+		return result;
+	}
+
+	protected void setExtendedIdentity(final DefaultUserIdentity extendedIdentity) {
+		// HINT: extendedIdentity can be null
+
+		this.extendedIdentity = extendedIdentity;
+		this.identity = null;
+	}
 
 	// Derived attributes -----------------------------------------------------
 
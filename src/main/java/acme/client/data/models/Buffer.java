@@ -12,16 +12,34 @@
 
 package acme.client.data.models;
 
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import acme.client.helpers.StringHelper;
+
 public class Buffer extends WorkArea {
 
 	// Constructors -----------------------------------------------------------
 
 	public Buffer() {
 		super.addGlobal("$errors", new Errors());
+		this.boundProperties = new IdentityHashMap<Object, Set<String>>();
 	}
 
+	// Internal state ---------------------------------------------------------
+
+	// HINT: the properties that were bound to every object are recorded, so that only they
+	// HINT+ have to be validated.  They are keyed by identity, since entities define equality
+	// HINT+ in terms of their identifiers.
+
+	private final Map<Object, Set<String>> boundProperties;
+
 	// Properties -------------------------------------------------------------
 
+
 	public Errors getErrors() {
 		Errors result;
 
@@ -30,4 +48,23 @@ public class Buffer extends WorkArea {
 		return result;
 	}
 
+	public Set<String> getBoundProperties(final Object object) {
+		assert object != null;
+
+		Set<String> result;
+
+		result = this.boundProperties.get(object);
+
+		return result;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void addBoundProperties(final Object object, final Collection<String> properties) {
+		assert object != null;
+		assert !StringHelper.someBlank(properties);
+
+		this.boundProperties.computeIfAbsent(object, key -> new LinkedHashSet<String>()).addAll(properties);
+	}
+
 }
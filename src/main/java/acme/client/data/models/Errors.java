@@ -72,6 +72,7 @@ public class Errors implements Iterable<Entry<String, List<String>>> {
 		assert !StringHelper.isBlank(message);
 
 		List<String> currentErrors;
+		int index;
 
 		if (this.map.containsKey(attributeName))
 			currentErrors = this.map.get(attributeName);
@@ -80,8 +81,8 @@ public class Errors implements Iterable<Entry<String, List<String>>> {
 			this.map.put(attributeName, currentErrors);
 		}
 
-		currentErrors.add(message);
-		currentErrors.sort(String::compareToIgnoreCase);
+		index = Errors.computeInsertionIndex(currentErrors, message);
+		currentErrors.add(index, message);
 	}
 
 	public boolean hasErrors() {
@@ -132,4 +133,32 @@ public class Errors implements Iterable<Entry<String, List<String>>> {
 		return result;
 	}
 
+	// Ancillary methods ------------------------------------------------------
+
+	protected static int computeInsertionIndex(final List<String> messages, final String message) {
+		assert messages != null;
+		assert message != null;
+
+		int result;
+		int low, high;
+
+		// HINT: the messages are kept sorted, so the insertion point is found by means of a
+		// HINT+ binary search; equal messages are kept in insertion order, as a stable sort would.
+
+		low = 0;
+		high = messages.size();
+		while (low < high) {
+			int middle;
+
+			middle = (low + high) >>> 1;
+			if (messages.get(middle).compareToIgnoreCase(message) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		result = low;
+
+		return result;
+	}
+
 }
@@ -12,6 +12,7 @@
 
 package acme.client.data.models;
 
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -27,6 +28,20 @@ import acme.internals.helpers.ServletHelper;
 
 public class Request extends WorkArea {
 
+	// Internal state ---------------------------------------------------------
+
+	// HINT: the parameters of a request are not converted until a service asks for them, since
+	// HINT+ many services never do.  They are retrieved from the servlet request from which the
+	// HINT+ request was built, which is recycled by the container once it is served; that is why
+	// HINT+ the request must be detached before it outlives its handler.  Detaching a request
+	// HINT+ just keeps a shallow copy of the raw parameter map, which is converted only if the
+	// HINT+ data are eventually read.  Note that the principal is not retrieved lazily, since
+	// HINT+ the handler always checks it.
+
+	private HttpServletRequest		source;
+	private Map<String, String[]>	parameters;
+	private boolean					dataLoaded;
+
 	// Constructors -----------------------------------------------------------
 
 	public Request() {
@@ -41,18 +56,15 @@ public class Request extends WorkArea {
 		assert httpServletRequest != null;
 
 		Request result;
-		Map<String, Object> parameters;
 
 		result = new Request();
+		result.source = httpServletRequest;
 
 		result.addGlobal("$url", httpServletRequest.getRequestURI());
 		result.addGlobal("$method", httpServletRequest.getMethod());
 		result.addGlobal("$command", ServletHelper.getFeatureCommand(httpServletRequest));
-		result.addGlobal("$principal", PrincipalHelper.get());
 		result.addGlobal("$locale", Request.buildLocale(httpServletRequest));
-
-		parameters = ServletHelper.extractParameters(httpServletRequest);
-		result.addData(parameters.keySet(), parameters.values());
+		result.addGlobal("$principal", PrincipalHelper.get());
 
 		return result;
 	}
@@ -139,8 +151,31 @@ public class Request extends WorkArea {
 		super.addGlobal("$locale", locale);
 	}
 
+	// Business methods -------------------------------------------------------
+
+	public void detach() {
+		if (this.source != null && !this.dataLoaded)
+			this.parameters = new LinkedHashMap<String, String[]>(this.source.getParameterMap());
+		this.source = null;
+	}
+
 	// Ancillary methods ------------------------------------------------------
 
+	@Override
+	protected void load(final String name, final String key) {
+		assert StringHelper.anyOf(name, "$globals|$data");
+		// HINT: key can be null
+
+		Map<String, Object> data;
+
+		if (name.equals("$data") && !this.dataLoaded && (this.source != null || this.parameters != null)) {
+			this.dataLoaded = true;
+			data = this.source != null ? ServletHelper.extractParameters(this.source) : ServletHelper.extractParameters(this.parameters);
+			this.parameters = null;
+			super.addData(data.keySet(), data.values());
+		}
+	}
+
 	private static Locale buildLocale(final HttpServletRequest httpServletRequest) {
 		assert httpServletRequest != null;
 
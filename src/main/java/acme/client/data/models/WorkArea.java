@@ -13,6 +13,7 @@
 package acme.client.data.models;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -27,13 +28,22 @@ public abstract class WorkArea {
 
 	// Internal state ---------------------------------------------------------
 
-	private Map<String, Dataset> map;
+	private Map<String, Dataset>	map;
+
+	// HINT: typed values are memoised per key, since converting them is expensive and services
+	// HINT+ tend to ask for the same ones again and again.  A memo is discarded as soon as the
+	// HINT+ object it was computed from is replaced.
+
+	private Map<String, Conversion>	globalConversions;
+	private Map<String, Conversion>	dataConversions;
 
 	// Constructors -----------------------------------------------------------
 
 
 	protected WorkArea() {
 		this.map = new LinkedHashMap<String, Dataset>();
+		this.globalConversions = new HashMap<String, Conversion>();
+		this.dataConversions = new HashMap<String, Conversion>();
 
 		Dataset global, data;
 
@@ -49,6 +59,7 @@ public abstract class WorkArea {
 	public Dataset getGlobals() {
 		Dataset result;
 
+		this.load("$globals", null);
 		result = this.map.get("$globals");
 
 		return result;
@@ -59,6 +70,7 @@ public abstract class WorkArea {
 
 		boolean result;
 
+		this.load("$globals", key);
 		result = this.map.get("$globals").containsKey(key);
 
 		return result;
@@ -71,6 +83,7 @@ public abstract class WorkArea {
 		boolean result;
 		Object datum;
 
+		this.load("$globals", key);
 		result = this.map.get("$globals").containsKey(key);
 		if (result) {
 			datum = this.map.get("$globals").get(key);
@@ -85,6 +98,7 @@ public abstract class WorkArea {
 
 		Object result;
 
+		this.load("$globals", key);
 		result = this.map.get("$globals").get(key);
 
 		return result;
@@ -97,8 +111,9 @@ public abstract class WorkArea {
 		T result;
 		Object object;
 
+		this.load("$globals", key);
 		object = this.map.get("$globals").get(key);
-		result = ConversionHelper.convert(object, clazz);
+		result = WorkArea.convert(this.globalConversions, key, object, clazz);
 
 		return result;
 	}
@@ -109,6 +124,7 @@ public abstract class WorkArea {
 
 		Dataset target;
 
+		this.load("$globals", key);
 		target = this.map.get("$globals");
 		target.put(key, object);
 	}
@@ -118,6 +134,7 @@ public abstract class WorkArea {
 	public Dataset getData() {
 		Dataset result;
 
+		this.load("$data", null);
 		result = this.map.get("$data");
 
 		return result;
@@ -128,6 +145,7 @@ public abstract class WorkArea {
 
 		boolean result;
 
+		this.load("$data", key);
 		result = this.map.get("$data").containsKey(key);
 
 		return result;
@@ -140,6 +158,7 @@ public abstract class WorkArea {
 		boolean result;
 		Object datum;
 
+		this.load("$data", key);
 		result = this.map.get("$data").containsKey(key);
 		if (result) {
 			datum = this.map.get("$data").get(key);
@@ -154,7 +173,8 @@ public abstract class WorkArea {
 
 		Object result;
 
-		result = this.map.get("$globals").get(key);
+		this.load("$data", key);
+		result = this.map.get("$data").get(key);
 
 		return result;
 	}
@@ -166,8 +186,9 @@ public abstract class WorkArea {
 		T result;
 		Object object;
 
+		this.load("$data", key);
 		object = this.map.get("$data").get(key);
-		result = ConversionHelper.convert(object, clazz);
+		result = WorkArea.convert(this.dataConversions, key, object, clazz);
 
 		return result;
 	}
@@ -179,6 +200,7 @@ public abstract class WorkArea {
 		String key;
 
 		key = StringHelper.toIdentity(object);
+		this.load("$data", key);
 		target = this.map.get("$data");
 		target.put(key, object);
 	}
@@ -189,6 +211,7 @@ public abstract class WorkArea {
 
 		Dataset target;
 
+		this.load("$data", key);
 		target = this.map.get("$data");
 		target.put(key, object);
 	}
@@ -227,6 +250,8 @@ public abstract class WorkArea {
 	public Collection<Entry<String, Dataset>> getEntries() {
 		Collection<Entry<String, Dataset>> result;
 
+		this.load("$globals", null);
+		this.load("$data", null);
 		result = this.map.entrySet();
 
 		return result;
@@ -235,6 +260,7 @@ public abstract class WorkArea {
 	public Collection<Entry<String, Object>> getGlobalEntries() {
 		Collection<Entry<String, Object>> result;
 
+		this.load("$globals", null);
 		result = this.map.get("$globals").entrySet();
 
 		return result;
@@ -243,6 +269,7 @@ public abstract class WorkArea {
 	public Collection<Entry<String, Object>> getDataEntries() {
 		Collection<Entry<String, Object>> result;
 
+		this.load("$data", null);
 		result = this.map.get("$data").entrySet();
 
 		return result;
@@ -266,4 +293,53 @@ public abstract class WorkArea {
 		return result.toString();
 	}
 
+	// Ancillary methods ------------------------------------------------------
+
+	protected void load(final String name, final String key) {
+		assert StringHelper.anyOf(name, "$globals|$data");
+		// HINT: key can be null, which means that the whole dataset is requested.
+
+		// HINT: subclasses can override this method to populate their datasets lazily, i.e., the
+		// HINT+ first time that a key or the whole dataset is requested.  It is invoked before
+		// HINT+ every read or write, so it must be idempotent and cheap once the data are loaded.
+	}
+
+	@SuppressWarnings("unchecked")
+	protected static <T> T convert(final Map<String, Conversion> conversions, final String key, final Object object, final Class<T> clazz) {
+		assert conversions != null;
+		assert !StringHelper.isBlank(key);
+		// HINT: object can be null
+		assert clazz != null;
+
+		T result;
+		Conversion conversion;
+
+		conversion = conversions.get(key);
+		if (conversion == null || conversion.source != object) {
+			conversion = new Conversion();
+			conversion.source = object;
+			conversion.values = new HashMap<Class<?>, Object>();
+			conversions.put(key, conversion);
+		}
+
+		if (conversion.values.containsKey(clazz))
+			result = (T) conversion.values.get(clazz);
+		else {
+			result = ConversionHelper.convert(object, clazz);
+			conversion.values.put(clazz, result);
+		}
+
+		return result;
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+
+	protected static class Conversion {
+
+		public Object					source;
+		public Map<Class<?>, Object>	values;
+
+	}
+
 }
@@ -15,6 +15,7 @@ package acme.client.features.authenticated.userAccount;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import acme.client.data.accounts.IndexedUserIdentity;
 import acme.client.data.accounts.UserAccount;
 import acme.client.repositories.AbstractRepository;
 
@@ -24,7 +25,7 @@ public interface AuthenticatedUserAccountRepository extends AbstractRepository {
 	@Query("select ua from UserAccount ua where ua.id = :id")
 	UserAccount findOneUserAccountById(int id);
 
-	@Query("select ua.identity from UserAccount ua where ua.id = :id")
-	String loadIdentityByUserAccountId(int id);
+	@Query("select ua.indexedIdentity from UserAccount ua where ua.id = :id")
+	IndexedUserIdentity loadIdentityByUserAccountId(int id);
 
 }
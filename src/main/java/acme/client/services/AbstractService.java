@@ -17,6 +17,7 @@ import java.util.Collection;
 import org.apache.commons.lang3.NotImplementedException;
 import org.springframework.stereotype.Service;
 
+import acme.client.data.AbstractEntity;
 import acme.client.data.AbstractObject;
 import acme.client.data.AbstractRole;
 import acme.client.data.models.Buffer;
@@ -146,6 +147,37 @@ public abstract class AbstractService<R extends AbstractRole, O extends Abstract
 	public void onFailure() {
 	}
 
+	// Lifecycle methods ------------------------------------------------------
+
+	public LifecycleMode getLifecycleMode() {
+		return LifecycleMode.SPLIT;
+	}
+
+	public boolean isOutcomeTransactional() {
+		return true;
+	}
+
+	// HINT: by default, the objects in the buffer are validated as a whole after they are bound.
+	// HINT+ A service may override this method to return true if only the properties that it
+	// HINT+ binds need to be validated; it must not then set constrained properties in "load"
+	// HINT+ or "bind" that may be invalid, since they would not be reported as form errors.
+
+	public boolean isPropertyValidationEnabled() {
+		return false;
+	}
+
+	// Conditional requests ---------------------------------------------------
+
+	// HINT: a service that handles GET requests may override this method to return a cheap
+	// HINT+ fingerprint of the data it shows, e.g., the identifiers and versions of the entities
+	// HINT+ involved.  The controller calls it right after authorise; if the client already has
+	// HINT+ a page with the same fingerprint, then it answers "304 Not Modified" and neither
+	// HINT+ loads nor renders anything.  Returning null disables conditional requests.
+
+	public String computeFingerprint() {
+		return null;
+	}
+
 	// Utility methods --------------------------------------------------------
 
 	protected void state(final boolean condition, final String property, final String code, final Object... arguments) {
@@ -159,6 +191,22 @@ public abstract class AbstractService<R extends AbstractRole, O extends Abstract
 		errors.state(this.getRequest(), condition, property, code, arguments);
 	}
 
+	protected String fingerprint(final Collection<? extends AbstractEntity> entities) {
+		assert entities != null;
+
+		StringBuilder result;
+
+		result = new StringBuilder();
+		for (final AbstractEntity entity : entities) {
+			result.append(entity.getId());
+			result.append(':');
+			result.append(entity.getVersion());
+			result.append(';');
+		}
+
+		return result.toString();
+	}
+
 	protected void bind(final O object, final String... properties) {
 		assert object != null;
 		assert !StringHelper.someBlank(properties);
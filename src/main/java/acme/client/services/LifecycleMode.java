@@ -0,0 +1,26 @@
+/*
+ * LifecycleMode.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.client.services;
+
+public enum LifecycleMode {
+
+	// HINT: SPLIT runs the command in a transaction and then "onSuccess" or "onFailure" in 
+	// HINT+ another one; SINGLE runs the whole command, including those hooks, in a single 
+	// HINT+ transaction.  In both modes, the hooks run outside any transactions if the service 
+	// HINT+ declares that they do not require one.  Either way, if the transaction fails after
+	// HINT+ a hook has returned, the response reports the failure, but no other hook is run;
+	// HINT+ if a hook throws an exception, "onFailure" is run as usual.
+
+	SPLIT, SINGLE;
+
+}
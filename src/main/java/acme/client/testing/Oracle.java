@@ -18,12 +18,16 @@ import javax.servlet.http.HttpServletResponse;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import acme.client.helpers.StringHelper;
+import acme.internals.components.database.MonitoredDataSource;
 import acme.internals.helpers.ServletHelper;
 
 @JsonPropertyOrder({
 	"requestId", "requestMethod", "requestPath", "requestQuery", "requestPayload", // 
 	"responseStatus", "responseContentType", "responsePayload", "responseOops", // 
-	"preHandleTimestamp", "postHandleTimestamp", "afterCompletionTimestamp" //
+	"preHandleTimestamp", "postHandleTimestamp", "afterCompletionTimestamp", //
+	"responseCache", //
+	"connectionWaitTime", "connectionHoldTime", //
+	"statementCount", "statementRows", "statementTime", "statementRepetitions" //
 })
 public class Oracle {
 
@@ -39,6 +43,9 @@ public class Oracle {
 		String requestId, requestMethod, requestPath, requestQuery, requestPayload;
 		String responseStatus, responseContentType, responsePayload, responseOops;
 		String preHandleTimestamp, postHandleTimestamp, afterCompletionTimestamp;
+		String responseCache;
+		String connectionWaitTime, connectionHoldTime;
+		String statementCount, statementRows, statementTime, statementRepetitions;
 
 		requestId = String.valueOf(request.getAttribute("acme.request-id"));
 
@@ -66,6 +73,23 @@ public class Oracle {
 		postHandleTimestamp = String.valueOf(request.getAttribute("acme.timestamps.post-handle"));
 		afterCompletionTimestamp = String.valueOf(request.getAttribute("acme.timestamps.after-completion"));
 
+		// HINT: the response cache is "hit" if a conditional request was answered with 304, "miss"
+		// HINT+ if it required a full response, and blank if the service does not support them.
+		responseCache = request.getAttribute("acme.response-cache") == null ? "" : String.valueOf(request.getAttribute("acme.response-cache"));
+
+		// HINT: the connection times are the nanoseconds that the request waited for a database
+		// HINT+ connection and held it, added up across the connections it used, if any.
+		connectionWaitTime = request.getAttribute(MonitoredDataSource.WAIT_TIME_ATTRIBUTE) == null ? "0" : String.valueOf(request.getAttribute(MonitoredDataSource.WAIT_TIME_ATTRIBUTE));
+		connectionHoldTime = request.getAttribute(MonitoredDataSource.HOLD_TIME_ATTRIBUTE) == null ? "0" : String.valueOf(request.getAttribute(MonitoredDataSource.HOLD_TIME_ATTRIBUTE));
+
+		// HINT: the statement figures are recorded when the request completes: the number of
+		// HINT+ statements, the rows they read, the nanoseconds spent in JDBC, and the number of
+		// HINT+ times that the most repeated statement was issued.
+		statementCount = request.getAttribute("acme.statements.count") == null ? "0" : String.valueOf(request.getAttribute("acme.statements.count"));
+		statementRows = request.getAttribute("acme.statements.rows") == null ? "0" : String.valueOf(request.getAttribute("acme.statements.rows"));
+		statementTime = request.getAttribute("acme.statements.time") == null ? "0" : String.valueOf(request.getAttribute("acme.statements.time"));
+		statementRepetitions = request.getAttribute("acme.statements.repetitions") == null ? "0" : String.valueOf(request.getAttribute("acme.statements.repetitions"));
+
 		result = new Oracle();
 
 		result.setRequestId(requestId);
@@ -84,6 +108,16 @@ public class Oracle {
 		result.setPostHandleTimestamp(postHandleTimestamp);
 		result.setAfterCompletionTimestamp(afterCompletionTimestamp);
 
+		result.setResponseCache(responseCache);
+
+		result.setConnectionWaitTime(connectionWaitTime);
+		result.setConnectionHoldTime(connectionHoldTime);
+
+		result.setStatementCount(statementCount);
+		result.setStatementRows(statementRows);
+		result.setStatementTime(statementTime);
+		result.setStatementRepetitions(statementRepetitions);
+
 		return result;
 	}
 
@@ -114,6 +148,20 @@ public class Oracle {
 
 	private String	afterCompletionTimestamp;
 
+	private String	responseCache;
+
+	private String	connectionWaitTime;
+
+	private String	connectionHoldTime;
+
+	private String	statementCount;
+
+	private String	statementRows;
+
+	private String	statementTime;
+
+	private String	statementRepetitions;
+
 	// Properties -------------------------------------------------------------
 
 
@@ -240,4 +288,74 @@ public class Oracle {
 		this.afterCompletionTimestamp = afterCompletionTimestamp;
 	}
 
+	public String getResponseCache() {
+		return this.responseCache;
+	}
+
+	public void setResponseCache(final String responseCache) {
+		// HINT: responseCache can be null, e.g., when reading traces recorded before it was introduced
+
+		this.responseCache = responseCache == null ? "" : responseCache;
+	}
+
+	public String getConnectionWaitTime() {
+		return this.connectionWaitTime;
+	}
+
+	public void setConnectionWaitTime(final String connectionWaitTime) {
+		// HINT: connectionWaitTime can be null, e.g., when reading traces recorded before it was introduced
+
+		this.connectionWaitTime = connectionWaitTime == null ? "0" : connectionWaitTime;
+	}
+
+	public String getConnectionHoldTime() {
+		return this.connectionHoldTime;
+	}
+
+	public void setConnectionHoldTime(final String connectionHoldTime) {
+		// HINT: connectionHoldTime can be null, e.g., when reading traces recorded before it was introduced
+
+		this.connectionHoldTime = connectionHoldTime == null ? "0" : connectionHoldTime;
+	}
+
+	public String getStatementCount() {
+		return this.statementCount;
+	}
+
+	public void setStatementCount(final String statementCount) {
+		// HINT: statementCount can be null, e.g., when reading traces recorded before it was introduced
+
+		this.statementCount = statementCount == null ? "0" : statementCount;
+	}
+
+	public String getStatementRows() {
+		return this.statementRows;
+	}
+
+	public void setStatementRows(final String statementRows) {
+		// HINT: statementRows can be null, e.g., when reading traces recorded before it was introduced
+
+		this.statementRows = statementRows == null ? "0" : statementRows;
+	}
+
+	public String getStatementTime() {
+		return this.statementTime;
+	}
+
+	public void setStatementTime(final String statementTime) {
+		// HINT: statementTime can be null, e.g., when reading traces recorded before it was introduced
+
+		this.statementTime = statementTime == null ? "0" : statementTime;
+	}
+
+	public String getStatementRepetitions() {
+		return this.statementRepetitions;
+	}
+
+	public void setStatementRepetitions(final String statementRepetitions) {
+		// HINT: statementRepetitions can be null, e.g., when reading traces recorded before it was introduced
+
+		this.statementRepetitions = statementRepetitions == null ? "0" : statementRepetitions;
+	}
+
 }
@@ -0,0 +1,78 @@
+/*
+ * BoundedMap.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.adts;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class BoundedMap<K, V> {
+
+	// HINT: a bounded map keeps at most a given number of entries; when it is full, the entry
+	// HINT+ that was least recently accessed is discarded.  It is thread safe, since it is
+	// HINT+ intended to keep data that are stored by a request and retrieved by another one.
+
+	// Internal state ---------------------------------------------------------
+
+	private final Map<K, V> entries;
+
+	// Constructors -----------------------------------------------------------
+
+
+	public BoundedMap(final int maxSize) {
+		assert maxSize > 0;
+
+		this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+				return this.size() > maxSize;
+			}
+		};
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public synchronized V get(final K key) {
+		assert key != null;
+
+		V result;
+
+		result = this.entries.get(key);
+
+		return result;
+	}
+
+	public synchronized void put(final K key, final V value) {
+		assert key != null;
+		assert value != null;
+
+		this.entries.put(key, value);
+	}
+
+	public synchronized V computeIfAbsent(final K key, final Function<? super K, ? extends V> factory) {
+		assert key != null;
+		assert factory != null;
+
+		V result;
+
+		result = this.entries.computeIfAbsent(key, factory);
+		assert result != null;
+
+		return result;
+	}
+
+}
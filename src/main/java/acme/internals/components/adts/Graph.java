@@ -14,7 +14,10 @@ package acme.internals.components.adts;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -22,14 +25,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import acme.client.helpers.CollectionHelper;
-
 public class Graph<T> {
 
+	// HINT: an edge from vertex1 to vertex2 means that vertex1 depends on vertex2, so vertex2
+	// HINT+ must come first in the topological order.  The order is computed iteratively using
+	// HINT+ Kahn's algorithm, which also groups the vertices into levels: the vertices in a level
+	// HINT+ depend only on vertices in previous levels, so they are independent of each other.
+	// HINT+ The vertices that cannot be sorted are involved in or depend on cycles; the cycles are
+	// HINT+ the strongly connected components amongst them, which are computed iteratively using
+	// HINT+ Tarjan's algorithm.  Both algorithms run in linear time.  The vertices that cannot be
+	// HINT+ sorted are not assigned to any levels, but they are appended to the order in depth-first
+	// HINT+ post-order, so that the order always includes every vertex and their dependencies come
+	// HINT+ first as long as they are not involved in a cycle.
+
 	// Internal state ---------------------------------------------------------
 
 	private final Map<T, Set<T>>	adjacency;
 	private List<T>					order;
+	private List<List<T>>			levels;
 	private Set<List<T>>			cycles;
 
 	// Constructors -----------------------------------------------------------
@@ -38,6 +51,7 @@ public class Graph<T> {
 	public Graph() {
 		this.adjacency = new LinkedHashMap<T, Set<T>>();
 		this.order = null;
+		this.levels = null;
 		this.cycles = null;
 	}
 
@@ -46,7 +60,7 @@ public class Graph<T> {
 	public boolean isClosed() {
 		boolean result;
 
-		result = this.order != null && this.cycles != null;
+		result = this.order != null && this.levels != null && this.cycles != null;
 
 		return result;
 	}
@@ -57,6 +71,12 @@ public class Graph<T> {
 		return this.order;
 	}
 
+	public List<List<T>> getLevels() {
+		assert this.isClosed();
+
+		return this.levels;
+	}
+
 	public Set<List<T>> getCycles() {
 		assert this.isClosed();
 
@@ -66,17 +86,16 @@ public class Graph<T> {
 	// Business methods -------------------------------------------------------
 
 	public void close() {
-		Set<T> processed;
-		Deque<T> path;
+		Set<T> remaining;
 
 		this.order = new ArrayList<T>();
+		this.levels = new ArrayList<List<T>>();
 		this.cycles = new LinkedHashSet<List<T>>();
-		processed = new LinkedHashSet<T>();
-		for (final T vertex : this.adjacency.keySet())
-			if (!processed.contains(vertex)) {
-				path = new ArrayDeque<T>();
-				this.computeTopologicalSort(vertex, processed, this.order, this.cycles, path);
-			}
+		remaining = this.computeTopologicalSort(this.order, this.levels);
+		if (!remaining.isEmpty()) {
+			this.computeCycles(remaining, this.cycles);
+			this.appendRemaining(remaining, this.order);
+		}
 	}
 
 	public boolean hasVertex(final T vertex) {
@@ -129,33 +148,172 @@ public class Graph<T> {
 
 	// Ancillary methods ------------------------------------------------------
 
-	protected void computeTopologicalSort(final T vertex, final Set<T> processed, final List<T> order, final Set<List<T>> cycles, final Deque<T> path) {
-		assert vertex != null;
-		assert !CollectionHelper.someNull(processed);
-		assert !CollectionHelper.someNull(order);
-		assert !CollectionHelper.someNull(cycles);
-		assert !CollectionHelper.someNull(path);
-
-		Iterator<T> iterator;
-		List<T> cycle;
-
-		processed.add(vertex);
-		path.push(vertex);
-		iterator = this.adjacency.get(vertex).iterator();
-		while (iterator.hasNext()) {
-			T next;
-
-			next = iterator.next();
-			if (path.contains(next)) {
-				cycle = new ArrayList<T>(path);
-				cycle.add(next);
-				cycles.add(cycle);
-			}
-			if (!processed.contains(next))
-				this.computeTopologicalSort(next, processed, order, cycles, path);
+	protected Set<T> computeTopologicalSort(final List<T> order, final List<List<T>> levels) {
+		assert order != null && order.isEmpty();
+		assert levels != null && levels.isEmpty();
+
+		Set<T> result;
+		Map<T, List<T>> dependants;
+		Map<T, Integer> pendingCounts;
+		List<T> level, nextLevel;
+
+		dependants = new HashMap<T, List<T>>();
+		pendingCounts = new HashMap<T, Integer>();
+		for (final Map.Entry<T, Set<T>> entry : this.adjacency.entrySet()) {
+			pendingCounts.put(entry.getKey(), entry.getValue().size());
+			for (final T dependency : entry.getValue())
+				dependants.computeIfAbsent(dependency, key -> new ArrayList<T>()).add(entry.getKey());
+		}
+
+		level = new ArrayList<T>();
+		for (final T vertex : this.adjacency.keySet())
+			if (pendingCounts.get(vertex) == 0)
+				level.add(vertex);
+
+		while (!level.isEmpty()) {
+			levels.add(Collections.unmodifiableList(level));
+			order.addAll(level);
+			nextLevel = new ArrayList<T>();
+			for (final T vertex : level)
+				for (final T dependant : dependants.getOrDefault(vertex, Collections.emptyList())) {
+					int count;
+
+					count = pendingCounts.get(dependant) - 1;
+					pendingCounts.put(dependant, count);
+					if (count == 0)
+						nextLevel.add(dependant);
+				}
+			level = nextLevel;
 		}
-		path.pop();
-		order.add(vertex);
+
+		result = new LinkedHashSet<T>();
+		if (order.size() != this.adjacency.size())
+			for (final T vertex : this.adjacency.keySet())
+				if (pendingCounts.get(vertex) != 0)
+					result.add(vertex);
+
+		return result;
+	}
+
+	protected void computeCycles(final Set<T> vertices, final Set<List<T>> cycles) {
+		assert vertices != null && !vertices.isEmpty();
+		assert cycles != null;
+
+		Map<T, Integer> indices, lowLinks;
+		Deque<T> stack, path;
+		Deque<Iterator<T>> iterators;
+		Set<T> onStack;
+		int counter;
+
+		indices = new HashMap<T, Integer>();
+		lowLinks = new HashMap<T, Integer>();
+		stack = new ArrayDeque<T>();
+		onStack = new HashSet<T>();
+		path = new ArrayDeque<T>();
+		iterators = new ArrayDeque<Iterator<T>>();
+		counter = 0;
+
+		for (final T root : vertices)
+			if (!indices.containsKey(root)) {
+				indices.put(root, counter);
+				lowLinks.put(root, counter);
+				counter++;
+				stack.push(root);
+				onStack.add(root);
+				path.push(root);
+				iterators.push(this.adjacency.get(root).iterator());
+
+				while (!path.isEmpty()) {
+					T vertex;
+					Iterator<T> iterator;
+
+					vertex = path.peek();
+					iterator = iterators.peek();
+					if (iterator.hasNext()) {
+						T next;
+
+						next = iterator.next();
+						if (vertices.contains(next) && !indices.containsKey(next)) {
+							indices.put(next, counter);
+							lowLinks.put(next, counter);
+							counter++;
+							stack.push(next);
+							onStack.add(next);
+							path.push(next);
+							iterators.push(this.adjacency.get(next).iterator());
+						} else if (onStack.contains(next))
+							lowLinks.put(vertex, Math.min(lowLinks.get(vertex), indices.get(next)));
+					} else {
+						path.pop();
+						iterators.pop();
+						if (!path.isEmpty())
+							lowLinks.put(path.peek(), Math.min(lowLinks.get(path.peek()), lowLinks.get(vertex)));
+						if (lowLinks.get(vertex).equals(indices.get(vertex)))
+							this.collectComponent(vertex, stack, onStack, cycles);
+					}
+				}
+			}
+	}
+
+	protected void appendRemaining(final Set<T> vertices, final List<T> order) {
+		assert vertices != null && !vertices.isEmpty();
+		assert order != null;
+
+		Set<T> visited;
+		Deque<T> path;
+		Deque<Iterator<T>> iterators;
+
+		visited = new HashSet<T>();
+		path = new ArrayDeque<T>();
+		iterators = new ArrayDeque<Iterator<T>>();
+
+		for (final T root : vertices)
+			if (!visited.contains(root)) {
+				visited.add(root);
+				path.push(root);
+				iterators.push(this.adjacency.get(root).iterator());
+
+				while (!path.isEmpty()) {
+					Iterator<T> iterator;
+
+					iterator = iterators.peek();
+					if (iterator.hasNext()) {
+						T next;
+
+						next = iterator.next();
+						if (vertices.contains(next) && !visited.contains(next)) {
+							visited.add(next);
+							path.push(next);
+							iterators.push(this.adjacency.get(next).iterator());
+						}
+					} else {
+						order.add(path.pop());
+						iterators.pop();
+					}
+				}
+			}
+	}
+
+	protected void collectComponent(final T vertex, final Deque<T> stack, final Set<T> onStack, final Set<List<T>> cycles) {
+		assert vertex != null;
+		assert stack != null && !stack.isEmpty();
+		assert onStack != null;
+		assert cycles != null;
+
+		List<T> component;
+		T member;
+
+		component = new ArrayList<T>();
+		do {
+			member = stack.pop();
+			onStack.remove(member);
+			component.add(member);
+		} while (!member.equals(vertex));
+		Collections.reverse(component);
+
+		// HINT: a single vertex is a cycle only if it depends on itself.
+		if (component.size() > 1 || this.adjacency.get(vertex).contains(vertex))
+			cycles.add(Collections.unmodifiableList(component));
 	}
 
 }
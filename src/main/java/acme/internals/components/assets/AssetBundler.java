@@ -0,0 +1,223 @@
+/*
+ * AssetBundler.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.assets;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class AssetBundler {
+
+	// HINT: this is a build-time tool that is run by Maven right after the classes are
+	// HINT+ compiled.  It reads the bundle definitions from acme.properties, concatenates
+	// HINT+ and minifies their sources, and writes every bundle to a file whose name
+	// HINT+ includes a fingerprint of its contents.  It also writes a manifest that maps
+	// HINT+ bundle names onto fingerprinted paths; AssetHelper reads it at run time.
+
+	// Constructors -----------------------------------------------------------
+
+	protected AssetBundler() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	public static final String		BUNDLE_DIRECTORY	= "bundles";
+	public static final String		MANIFEST_RESOURCE	= "META-INF/acme-bundles.properties";
+	public static final String		BUNDLE_NAMES		= "acme.assets.bundles";
+	public static final String		BUNDLE_PREFIX		= "acme.assets.bundle.";
+
+	private static final Pattern	SOURCE_MAP_PATTERN	= Pattern.compile("^\\s*(//|/\\*)# sourceMappingURL=.*$", Pattern.MULTILINE);
+	private static final Pattern	CSS_COMMENT_PATTERN	= Pattern.compile("/\\*(?!!).*?\\*/", Pattern.DOTALL);
+	private static final Pattern	CSS_URL_PATTERN		= Pattern.compile("url\\(\\s*(['\"]?)([^'\")]+)\\1\\s*\\)");
+
+	// Entry point ------------------------------------------------------------
+
+
+	public static void main(final String... args) throws IOException {
+		if (args.length != 3) {
+			System.err.println("Usage: AssetBundler <configuration> <resources> <output>");
+			System.exit(1);
+		}
+
+		Path configuration, resources, output;
+
+		configuration = Path.of(args[0]);
+		resources = Path.of(args[1]);
+		output = Path.of(args[2]);
+		AssetBundler.bundle(configuration, resources, output);
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public static void bundle(final Path configuration, final Path resources, final Path output) throws IOException {
+		assert configuration != null;
+		assert resources != null;
+		assert output != null;
+
+		Properties definitions, manifest;
+		Path bundleDirectory, manifestFile;
+
+		definitions = new Properties();
+		try (Reader reader = Files.newBufferedReader(configuration, StandardCharsets.UTF_8)) {
+			definitions.load(reader);
+		}
+
+		bundleDirectory = output.resolve("META-INF/resources").resolve(AssetBundler.BUNDLE_DIRECTORY);
+		Files.createDirectories(bundleDirectory);
+
+		manifest = new Properties();
+		for (final String name : AssetBundler.split(definitions.getProperty(AssetBundler.BUNDLE_NAMES, ""))) {
+			List<String> sources;
+			String contents, extension, fileName;
+
+			sources = AssetBundler.split(definitions.getProperty(AssetBundler.BUNDLE_PREFIX + name, ""));
+			if (sources.isEmpty())
+				throw new IllegalArgumentException(String.format("Bundle '%s' has no sources.", name));
+			extension = sources.get(0).substring(sources.get(0).lastIndexOf('.') + 1);
+			contents = AssetBundler.concatenate(resources, sources, extension);
+			fileName = String.format("%s-%s.%s", name, AssetBundler.fingerprint(contents), extension);
+
+			Files.writeString(bundleDirectory.resolve(fileName), contents, StandardCharsets.UTF_8);
+			manifest.setProperty(name, AssetBundler.BUNDLE_DIRECTORY + "/" + fileName);
+			System.out.printf("Bundled %d file(s) into %s/%s (%d bytes).%n", sources.size(), AssetBundler.BUNDLE_DIRECTORY, fileName, contents.length());
+		}
+
+		manifestFile = output.resolve(AssetBundler.MANIFEST_RESOURCE);
+		Files.createDirectories(manifestFile.getParent());
+		try (Writer writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+			manifest.store(writer, "Generated by AssetBundler; do not edit");
+		}
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static String concatenate(final Path resources, final List<String> sources, final String extension) throws IOException {
+		assert resources != null;
+		assert sources != null && !sources.isEmpty();
+		assert extension != null;
+
+		StringBuilder result;
+
+		result = new StringBuilder();
+		for (final String source : sources) {
+			String contents;
+
+			if (!source.endsWith("." + extension))
+				throw new IllegalArgumentException(String.format("Cannot bundle '%s' with other .%s files.", source, extension));
+
+			contents = Files.readString(resources.resolve(source), StandardCharsets.UTF_8);
+			contents = AssetBundler.SOURCE_MAP_PATTERN.matcher(contents).replaceAll("");
+			if (extension.equals("css")) {
+				contents = AssetBundler.rebaseUrls(contents, source);
+				contents = AssetBundler.minifyStyles(contents);
+			}
+
+			result.append(String.format("/* %s */%n", source));
+			result.append(contents.strip());
+			// HINT: scripts are separated by semicolons, since some of them do not end with one.
+			result.append(extension.equals("js") ? String.format(";%n") : System.lineSeparator());
+		}
+
+		return result.toString();
+	}
+
+	protected static String rebaseUrls(final String styles, final String source) {
+		assert styles != null;
+		assert source != null;
+
+		// HINT: relative URLs in a style sheet are relative to the location of that style sheet,
+		// HINT+ which changes once it is copied into a bundle; they must then be rebased.
+
+		StringBuilder result;
+		Matcher matcher;
+		URI base;
+
+		result = new StringBuilder();
+		base = URI.create(source);
+		matcher = AssetBundler.CSS_URL_PATTERN.matcher(styles);
+		while (matcher.find()) {
+			String url, rebased;
+
+			url = matcher.group(2).strip();
+			if (url.startsWith("data:") || url.startsWith("#") || url.startsWith("/") || url.contains("://"))
+				rebased = matcher.group();
+			else
+				rebased = String.format("url(\"../%s\")", base.resolve(url));
+			matcher.appendReplacement(result, Matcher.quoteReplacement(rebased));
+		}
+		matcher.appendTail(result);
+
+		return result.toString();
+	}
+
+	protected static String minifyStyles(final String styles) {
+		assert styles != null;
+
+		// HINT: this is a conservative minification that removes comments other than licence
+		// HINT+ comments, which start with "/*!", and collapses blank space.  Scripts are not
+		// HINT+ minified, since the third-party ones are already distributed minified.
+
+		String result;
+
+		result = AssetBundler.CSS_COMMENT_PATTERN.matcher(styles).replaceAll("");
+		result = result.replaceAll("\\s+", " ");
+		result = result.replaceAll("\\s*([{};,>])\\s*", "$1");
+
+		return result;
+	}
+
+	protected static String fingerprint(final String contents) {
+		assert contents != null;
+
+		String result;
+		MessageDigest digest;
+		byte[] hash;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException oops) {
+			throw new IllegalStateException(oops);
+		}
+		hash = digest.digest(contents.getBytes(StandardCharsets.UTF_8));
+		result = HexFormat.of().formatHex(hash, 0, 8);
+
+		return result;
+	}
+
+	public static List<String> split(final String text) {
+		assert text != null;
+
+		List<String> result;
+
+		result = new ArrayList<String>();
+		for (final String item : text.split(","))
+			if (!item.isBlank())
+				result.add(item.strip());
+
+		return result;
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * CacheMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import acme.internals.components.metrics.AbstractMetrics;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=cache", description = "Second-level cache metrics")
+public class CacheMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected CacheMetrics() {
+		this.storages = new CopyOnWriteArrayList<LocalStorageAccess>();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final List<LocalStorageAccess> storages;
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "cache";
+	}
+
+	@ManagedAttribute(description = "Number of regions in the cache")
+	public int getRegions() {
+		return this.storages.size();
+	}
+
+	@ManagedAttribute(description = "Number of entries in the cache")
+	public long getEntries() {
+		long result;
+
+		result = 0;
+		for (final LocalStorageAccess storage : this.storages)
+			for (final LocalCache cache : storage.getCaches())
+				result += cache.getSize();
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Number of lookups that found their entry in the cache")
+	public long getHits() {
+		long result;
+
+		result = 0;
+		for (final LocalStorageAccess storage : this.storages)
+			result += storage.getHits();
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Number of lookups that did not find their entry in the cache")
+	public long getMisses() {
+		long result;
+
+		result = 0;
+		for (final LocalStorageAccess storage : this.storages)
+			result += storage.getMisses();
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Ratio of lookups that found their entry in the cache")
+	public double getHitRatio() {
+		double result;
+		long hits;
+
+		hits = this.getHits();
+		result = AbstractMetrics.computeAverage(hits, hits + this.getMisses());
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Number of entries evicted because their cache was full")
+	public long getEvictions() {
+		long result;
+
+		result = 0;
+		for (final LocalStorageAccess storage : this.storages)
+			for (final LocalCache cache : storage.getCaches())
+				result += cache.getEvictions();
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Number of entries discarded because their time to live elapsed")
+	public long getExpirations() {
+		long result;
+
+		result = 0;
+		for (final LocalStorageAccess storage : this.storages)
+			for (final LocalCache cache : storage.getCaches())
+				result += cache.getExpirations();
+
+		return result;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void register(final LocalStorageAccess storage) {
+		assert storage != null;
+
+		this.storages.add(storage);
+	}
+
+	public void unregister(final LocalStorageAccess storage) {
+		assert storage != null;
+
+		this.storages.remove(storage);
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+		Map<String, Object> regions;
+
+		regions = new LinkedHashMap<String, Object>();
+		for (final LocalStorageAccess storage : this.storages)
+			regions.put(storage.getRegionName(), storage.computeSnapshot());
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("regions", this.getRegions());
+		result.put("entries", this.getEntries());
+		result.put("hits", this.getHits());
+		result.put("misses", this.getMisses());
+		result.put("hitRatio", this.getHitRatio());
+		result.put("evictions", this.getEvictions());
+		result.put("expirations", this.getExpirations());
+		result.put("details", regions);
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		// HINT: the entries are not evicted, only the counters are reset.
+		for (final LocalStorageAccess storage : this.storages)
+			storage.reset();
+	}
+
+}
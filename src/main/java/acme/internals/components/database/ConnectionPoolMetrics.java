@@ -0,0 +1,377 @@
+/*
+ * ConnectionPoolMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import acme.client.helpers.StringHelper;
+import acme.internals.components.metrics.AbstractMetrics;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=connection-pool", description = "Database connection pool metrics")
+public class ConnectionPoolMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected ConnectionPoolMetrics() {
+		this.leases = ConcurrentHashMap.newKeySet();
+		this.waiting = new AtomicLong();
+		this.maxActive = new AtomicLong();
+		this.maxWaiting = new AtomicLong();
+		this.acquisitions = new LongAdder();
+		this.timeouts = new LongAdder();
+		this.waitTime = new LongAdder();
+		this.maxWaitTime = new AtomicLong();
+		this.releases = new LongAdder();
+		this.holdTime = new LongAdder();
+		this.maxHoldTime = new AtomicLong();
+		this.longHeld = new LongAdder();
+		this.occupationMoment = System.nanoTime();
+		this.resetMoment = this.occupationMoment;
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private int					maxPoolSize;
+	private long				holdThreshold;
+	private final Set<Lease>	leases;
+	private final AtomicLong	waiting;
+	private final AtomicLong	maxActive;
+	private final AtomicLong	maxWaiting;
+	private final LongAdder		acquisitions;
+	private final LongAdder		timeouts;
+	private final LongAdder		waitTime;
+	private final AtomicLong	maxWaitTime;
+	private final LongAdder		releases;
+	private final LongAdder		holdTime;
+	private final AtomicLong	maxHoldTime;
+	private final LongAdder		longHeld;
+
+	// HINT: the utilisation of the pool is the time-weighted average of the number of connections
+	// HINT+ that are held, relative to the size of the pool; it is accumulated every time that
+	// HINT+ a connection is acquired or released, which is why it requires a lock.
+
+	private long				active;
+	private long				occupationMoment;
+	private long				occupiedTime;
+	private long				resetMoment;
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "connection-pool";
+	}
+
+	@ManagedAttribute(description = "Maximum number of connections in the pool")
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	@ManagedAttribute(description = "Time after which a connection is considered long held in milliseconds")
+	public double getHoldThreshold() {
+		return AbstractMetrics.toMillis(this.holdThreshold);
+	}
+
+	@ManagedAttribute(description = "Number of connections that are held")
+	public synchronized long getActive() {
+		return this.active;
+	}
+
+	@ManagedAttribute(description = "Number of threads that are waiting for a connection")
+	public long getWaiting() {
+		return this.waiting.get();
+	}
+
+	@ManagedAttribute(description = "Maximum number of connections that were held concurrently")
+	public long getMaxActive() {
+		return this.maxActive.get();
+	}
+
+	@ManagedAttribute(description = "Maximum number of threads that waited for a connection concurrently")
+	public long getMaxWaiting() {
+		return this.maxWaiting.get();
+	}
+
+	@ManagedAttribute(description = "Number of connections acquired")
+	public long getAcquisitions() {
+		return this.acquisitions.sum();
+	}
+
+	@ManagedAttribute(description = "Number of connection requests that timed out")
+	public long getTimeouts() {
+		return this.timeouts.sum();
+	}
+
+	@ManagedAttribute(description = "Average time a thread waited for a connection in milliseconds")
+	public double getAverageWaitTime() {
+		double result;
+
+		result = AbstractMetrics.toMillis(AbstractMetrics.computeAverage(this.waitTime.sum(), this.getAcquisitions()));
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Maximum time a thread waited for a connection in milliseconds")
+	public double getMaxWaitTime() {
+		return AbstractMetrics.toMillis(this.maxWaitTime.get());
+	}
+
+	@ManagedAttribute(description = "Average time a connection was held in milliseconds")
+	public double getAverageHoldTime() {
+		double result;
+
+		result = AbstractMetrics.toMillis(AbstractMetrics.computeAverage(this.holdTime.sum(), this.releases.sum()));
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Maximum time a connection was held in milliseconds")
+	public double getMaxHoldTime() {
+		return AbstractMetrics.toMillis(this.maxHoldTime.get());
+	}
+
+	@ManagedAttribute(description = "Number of connections that were held longer than the threshold")
+	public long getLongHeld() {
+		return this.longHeld.sum();
+	}
+
+	@ManagedAttribute(description = "Average utilisation of the pool since the counters were reset")
+	public synchronized double getAverageUtilisation() {
+		double result;
+		long moment, elapsedTime, occupation;
+
+		moment = System.nanoTime();
+		elapsedTime = moment - this.resetMoment;
+		occupation = this.occupiedTime + this.active * (moment - this.occupationMoment);
+		result = this.maxPoolSize == 0 || elapsedTime == 0 ? 0.0 : (double) occupation / ((double) elapsedTime * this.maxPoolSize);
+
+		return result;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void recordConfiguration(final int maxPoolSize, final long holdThreshold) {
+		assert maxPoolSize >= 0; // HINT: zero means that the size of the pool is unknown
+		assert holdThreshold > 0;
+
+		this.maxPoolSize = maxPoolSize;
+		this.holdThreshold = holdThreshold;
+	}
+
+	public void recordRequested() {
+		long current;
+
+		current = this.waiting.incrementAndGet();
+		this.maxWaiting.accumulateAndGet(current, Math::max);
+	}
+
+	public void recordAcquired(final Lease lease, final long nanos) {
+		assert lease != null;
+		assert nanos >= 0;
+
+		long current;
+
+		this.waiting.decrementAndGet();
+		this.leases.add(lease);
+		current = this.accumulateOccupation(+1);
+		this.maxActive.accumulateAndGet(current, Math::max);
+		this.acquisitions.increment();
+		this.waitTime.add(nanos);
+		this.maxWaitTime.accumulateAndGet(nanos, Math::max);
+	}
+
+	public void recordFailed(final long nanos, final boolean timedOut) {
+		assert nanos >= 0;
+
+		this.waiting.decrementAndGet();
+		if (timedOut) {
+			this.timeouts.increment();
+			this.maxWaitTime.accumulateAndGet(nanos, Math::max);
+		}
+	}
+
+	public long recordReleased(final Lease lease) {
+		assert lease != null;
+
+		long result;
+
+		result = System.nanoTime() - lease.getMoment();
+		if (this.leases.remove(lease)) {
+			this.accumulateOccupation(-1);
+			this.releases.increment();
+			this.holdTime.add(result);
+			this.maxHoldTime.accumulateAndGet(result, Math::max);
+			if (this.isLongHeld(result))
+				this.longHeld.increment();
+		}
+
+		return result;
+	}
+
+	public boolean isLongHeld(final long nanos) {
+		assert nanos >= 0;
+
+		boolean result;
+
+		result = this.holdThreshold != 0 && nanos >= this.holdThreshold;
+
+		return result;
+	}
+
+	public List<Map<String, Object>> computeLongHeldLeases() {
+		List<Map<String, Object>> result;
+		List<Lease> candidates;
+		long moment;
+
+		// HINT: the connections that are still held past the threshold are reported, oldest
+		// HINT+ first, since they are the likely leaks.
+
+		moment = System.nanoTime();
+		candidates = new ArrayList<Lease>();
+		for (final Lease lease : this.leases)
+			if (this.isLongHeld(moment - lease.getMoment()))
+				candidates.add(lease);
+		candidates.sort(Comparator.comparingLong(Lease::getMoment));
+
+		result = new ArrayList<Map<String, Object>>();
+		for (final Lease lease : candidates) {
+			Map<String, Object> entry;
+
+			entry = new LinkedHashMap<String, Object>();
+			entry.put("command", lease.getCommand());
+			entry.put("thread", lease.getThread());
+			entry.put("holdTime", AbstractMetrics.toMillis(moment - lease.getMoment()));
+			result.add(entry);
+		}
+
+		return result;
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("maxPoolSize", this.getMaxPoolSize());
+		result.put("holdThreshold", this.getHoldThreshold());
+		result.put("active", this.getActive());
+		result.put("waiting", this.getWaiting());
+		result.put("maxActive", this.getMaxActive());
+		result.put("maxWaiting", this.getMaxWaiting());
+		result.put("averageUtilisation", this.getAverageUtilisation());
+		result.put("acquisitions", this.getAcquisitions());
+		result.put("timeouts", this.getTimeouts());
+		result.put("averageWaitTime", this.getAverageWaitTime());
+		result.put("maxWaitTime", this.getMaxWaitTime());
+		result.put("averageHoldTime", this.getAverageHoldTime());
+		result.put("maxHoldTime", this.getMaxHoldTime());
+		result.put("longHeld", this.getLongHeld());
+		result.put("longHeldLeases", this.computeLongHeldLeases());
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		// HINT: the number of active connections and waiting threads are gauges, so they are not reset.
+		synchronized (this) {
+			this.maxActive.set(this.active);
+			this.occupationMoment = System.nanoTime();
+			this.occupiedTime = 0;
+			this.resetMoment = this.occupationMoment;
+		}
+		this.maxWaiting.set(this.waiting.get());
+		this.acquisitions.reset();
+		this.timeouts.reset();
+		this.waitTime.reset();
+		this.maxWaitTime.set(0);
+		this.releases.reset();
+		this.holdTime.reset();
+		this.maxHoldTime.set(0);
+		this.longHeld.reset();
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected synchronized long accumulateOccupation(final int delta) {
+		assert delta == +1 || delta == -1;
+
+		long result;
+		long moment;
+
+		moment = System.nanoTime();
+		this.occupiedTime += this.active * (moment - this.occupationMoment);
+		this.occupationMoment = moment;
+		this.active += delta;
+		result = this.active;
+
+		return result;
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+	public static class Lease {
+
+		// Constructors -------------------------------------------------------
+
+		public Lease(final String command, final String thread) {
+			assert !StringHelper.isBlank(command);
+			assert !StringHelper.isBlank(thread);
+
+			this.command = command;
+			this.thread = thread;
+			this.moment = System.nanoTime();
+		}
+
+		// Internal state -----------------------------------------------------
+
+
+		private final String	command;
+		private final String	thread;
+		private final long		moment;
+
+		// Properties ---------------------------------------------------------
+
+
+		public String getCommand() {
+			return this.command;
+		}
+
+		public String getThread() {
+			return this.thread;
+		}
+
+		public long getMoment() {
+			return this.moment;
+		}
+
+	}
+
+}
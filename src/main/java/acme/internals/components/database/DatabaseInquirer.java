@@ -28,7 +28,12 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Collection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -39,15 +44,19 @@ import javax.swing.InputMap;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
 import javax.swing.JSplitPane;
 import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
 import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
@@ -83,7 +92,23 @@ public class DatabaseInquirer {
 
 	protected class Model {
 
-		private DefaultListModel<Triple<String, String, Boolean>> history; // HINT: index -> (command, output, error)		
+		private DefaultListModel<Triple<String, String, Boolean>>	history;	// HINT: index -> (command, output, error)		
+
+		// HINT: the following attributes are set by the event dispatch thread when the user
+		// HINT+ submits some commands, and they are read by the worker that executes them.
+
+		private volatile boolean									summary;
+		private volatile int										rowLimit;
+		private volatile boolean									cancelled;
+		private boolean												busy;
+
+		// HINT: the following attributes are used by the event dispatch thread only; the mark
+		// HINT+ is the length of the header of the output, which is never discarded, and the
+		// HINT+ flag records whether the output area is still showing the output of the select
+		// HINT+ that is being streamed, since it is replaced whenever a history entry is shown.
+
+		private int													outputMark;
+		private boolean												streaming;
 	}
 
 	protected class Components {
@@ -96,8 +121,10 @@ public class DatabaseInquirer {
 		private JTextArea								outputArea;
 		private JCheckBox								summaryToggle;
 		private JCheckBox								wrapToggle;
+		private JSpinner								limitSpinner;
 		private JButton									helpButton;
 		private JButton									submitButton;
+		private JButton									cancelButton;
 	}
 
 	protected class Layout {
@@ -221,6 +248,11 @@ public class DatabaseInquirer {
 			result.wrapToggle.setSelected(false);
 		}
 
+		{
+			result.limitSpinner = new JSpinner(new SpinnerNumberModel(DatabaseInquirer.DEFAULT_ROW_LIMIT, 1, DatabaseInquirer.MAXIMUM_ROW_LIMIT, DatabaseInquirer.PAGE_SIZE));
+			result.limitSpinner.setToolTipText("Maximum number of objects retrieved by a select command");
+		}
+
 		{
 			result.copyButton = new JButton();
 			result.copyButton.setText("Copy");
@@ -236,6 +268,12 @@ public class DatabaseInquirer {
 			result.submitButton.setText("Submit");
 		}
 
+		{
+			result.cancelButton = new JButton();
+			result.cancelButton.setText("Cancel");
+			result.cancelButton.setEnabled(false);
+		}
+
 		return result;
 	}
 
@@ -383,6 +421,15 @@ public class DatabaseInquirer {
 				components.inputArea.requestFocus();
 			});
 		}
+
+		{
+			components.cancelButton.addActionListener(event -> {
+				assert event != null;
+
+				model.cancelled = true;
+				components.inputArea.requestFocus();
+			});
+		}
 	}
 
 	protected void attachActions(final Model model, final Components components) {
@@ -496,11 +543,19 @@ public class DatabaseInquirer {
 		}
 
 		{
+			JPanel limitPanel;
+
+			limitPanel = new JPanel(new BorderLayout(5, 0));
+			limitPanel.add(new JLabel("Row limit"), BorderLayout.WEST);
+			limitPanel.add(components.limitSpinner, BorderLayout.CENTER);
+
 			result.optionsPanel = new JPanel(new GridBagLayout());
-			result.optionsPanel.add(components.summaryToggle, this.createConstraints(1.00, 0.25, 0, 0));
-			result.optionsPanel.add(components.wrapToggle, this.createConstraints(1.00, 0.25, 0, 1));
-			result.optionsPanel.add(components.helpButton, this.createConstraints(1.00, 0.25, 0, 2));
-			result.optionsPanel.add(components.submitButton, this.createConstraints(1.00, 0.25, 0, 3));
+			result.optionsPanel.add(components.summaryToggle, this.createConstraints(1.00, 0.16, 0, 0));
+			result.optionsPanel.add(components.wrapToggle, this.createConstraints(1.00, 0.16, 0, 1));
+			result.optionsPanel.add(limitPanel, this.createConstraints(1.00, 0.16, 0, 2));
+			result.optionsPanel.add(components.helpButton, this.createConstraints(1.00, 0.16, 0, 3));
+			result.optionsPanel.add(components.submitButton, this.createConstraints(1.00, 0.16, 0, 4));
+			result.optionsPanel.add(components.cancelButton, this.createConstraints(1.00, 0.16, 0, 5));
 		}
 
 		{
@@ -545,7 +600,17 @@ public class DatabaseInquirer {
 	}
 
 
-	private static String RULE = StringHelper.makeString("=", 80);
+	private static String		RULE				= StringHelper.makeString("=", 80);
+
+	// HINT: select commands fetch and render their results in pages of PAGE_SIZE objects,
+	// HINT+ which is also the fetch size of the underlying cursor and the number of objects
+	// HINT+ after which the persistence context is cleared.  Only the last TAIL_SIZE objects
+	// HINT+ are kept in the output and in the history, no matter how many are retrieved.
+
+	private static final int	PAGE_SIZE			= 50;
+	private static final int	DEFAULT_ROW_LIMIT	= 1000;
+	private static final int	MAXIMUM_ROW_LIMIT	= 1000000;
+	private static final int	TAIL_SIZE			= 1000;
 
 
 	protected void updateOutputPanel(final Triple<String, String, Boolean> entry) {
@@ -553,6 +618,7 @@ public class DatabaseInquirer {
 
 		StringBuilder buffer;
 
+		this.model.streaming = false;
 		if (entry == null)
 			this.components.outputArea.setText("");
 		else {
@@ -575,23 +641,122 @@ public class DatabaseInquirer {
 	protected void handleSubmit() {
 		String text;
 		String[] statements;
+		List<String> commands;
+		SwingWorker<Void, Triple<String, String, Boolean>> worker;
+
+		// HINT: the commands are executed by a background worker so that the user interface
+		// HINT+ remains responsive and long-running selects can be cancelled.
+
+		if (this.model.busy)
+			return;
 
 		text = this.components.inputArea.getText();
 		statements = text.split(";");
+		commands = new ArrayList<String>();
 		for (String statement : statements) {
 			String command;
-			Triple<String, String, Boolean> output;
-			int lastIndex;
 
 			command = statement.trim();
-			if (!StringHelper.isBlank(command)) {
-				output = this.interpretCommand(command);
-				this.model.history.addElement(output);
-				lastIndex = this.model.history.size() - 1;
-				this.components.historyList.setSelectedIndex(lastIndex);
-				this.components.historyList.ensureIndexIsVisible(lastIndex);
-			}
+			if (!StringHelper.isBlank(command))
+				commands.add(command);
 		}
+
+		this.model.busy = true;
+		this.model.cancelled = false;
+		this.model.summary = this.components.summaryToggle.isSelected();
+		this.model.rowLimit = (Integer) this.components.limitSpinner.getValue();
+		this.components.submitButton.setEnabled(false);
+		this.components.cancelButton.setEnabled(true);
+
+		worker = new SwingWorker<Void, Triple<String, String, Boolean>>() {
+
+			@Override
+			protected Void doInBackground() {
+				for (final String command : commands)
+					if (!DatabaseInquirer.this.model.cancelled)
+						this.publish(DatabaseInquirer.this.interpretCommand(command));
+
+				return null;
+			}
+
+			@Override
+			protected void process(final List<Triple<String, String, Boolean>> outputs) {
+				assert outputs != null;
+
+				int lastIndex;
+
+				for (final Triple<String, String, Boolean> output : outputs) {
+					DatabaseInquirer.this.model.history.addElement(output);
+					lastIndex = DatabaseInquirer.this.model.history.size() - 1;
+					DatabaseInquirer.this.components.historyList.setSelectedIndex(lastIndex);
+					DatabaseInquirer.this.components.historyList.ensureIndexIsVisible(lastIndex);
+				}
+			}
+
+			@Override
+			protected void done() {
+				DatabaseInquirer.this.model.busy = false;
+				DatabaseInquirer.this.components.submitButton.setEnabled(true);
+				DatabaseInquirer.this.components.cancelButton.setEnabled(false);
+				DatabaseInquirer.this.components.inputArea.requestFocus();
+			}
+
+		};
+		worker.execute();
+	}
+
+	protected void startOutput(final String command) {
+		assert !StringHelper.isBlank(command);
+
+		StringBuilder buffer;
+
+		buffer = new StringBuilder();
+		buffer.append(DatabaseInquirer.RULE);
+		buffer.append(System.lineSeparator());
+		buffer.append(command);
+		buffer.append(System.lineSeparator());
+		buffer.append(DatabaseInquirer.RULE);
+		buffer.append(System.lineSeparator());
+		buffer.append(System.lineSeparator());
+
+		SwingUtilities.invokeLater(() -> {
+			this.model.outputMark = buffer.length();
+			this.model.streaming = true;
+			this.components.outputArea.setForeground(Color.BLACK);
+			this.components.outputArea.setText(buffer.toString());
+		});
+	}
+
+	protected void appendOutput(final String text) {
+		assert text != null;
+
+		String page;
+
+		page = text.replace("\t", "    ");
+		SwingUtilities.invokeLater(() -> {
+			if (this.model.streaming)
+				this.components.outputArea.append(page);
+		});
+	}
+
+	protected void discardOutput(final int length) {
+		assert length >= 0;
+
+		// HINT: the text is discarded right after the header, i.e., it is the oldest text that
+		// HINT+ was appended to the output.  The range is computed on the event dispatch thread,
+		// HINT+ against the current length of the output, since it might have been replaced in
+		// HINT+ the meanwhile.
+
+		SwingUtilities.invokeLater(() -> {
+			int mark, end;
+
+			if (this.model.streaming) {
+				mark = this.model.outputMark;
+				end = Math.min(mark + length, this.components.outputArea.getDocument().getLength());
+				if (mark < end)
+					this.components.outputArea.replaceRange("", mark, end);
+			}
+		});
 	}
 
 	protected Triple<String, String, Boolean> interpretCommand(final String command) {
@@ -616,7 +781,7 @@ public class DatabaseInquirer {
 				buffer.append(System.lineSeparator());
 				buffer.append("* Transactional commands\n");
 				buffer.append(System.lineSeparator());
-				buffer.append("select <query>: executes <query> as a select statement.\n");
+				buffer.append("select <query>: executes <query> as a select statement, up to the row limit.\n");
 				buffer.append("update <query>: executes <query> as an update statement.\n");
 				buffer.append("delete <query>: executes <query> as a delete statement.\n");
 
@@ -637,23 +802,75 @@ public class DatabaseInquirer {
 				break;
 			}
 			case "select": {
-				long startTime, endTime;
-				Collection<Object> objects;
-				StringBuilder buffer;
-
-				startTime = System.currentTimeMillis();
+				long mark, queryTime, renderTime;
+				int rowLimit, count, discarded;
+				boolean summary, more;
+				Iterator<Object> rows;
+				Object row;
+				StringBuilder buffer, page;
+				Deque<String> tail;
+				String text, status;
+
+				// HINT: the query time includes starting the transaction, opening the cursor,
+				// HINT+ fetching the rows, and committing; the render time is the time spent
+				// HINT+ printing the objects that were fetched.
+
+				rowLimit = this.model.rowLimit;
+				summary = this.model.summary;
+				page = new StringBuilder();
+				tail = new ArrayDeque<String>();
+				count = 0;
+				discarded = 0;
+				renderTime = 0;
+				this.startOutput(command);
+
+				mark = System.nanoTime();
 				this.manager.startTransaction();
-				objects = this.manager.executeSelect(command);
+				try (Stream<Object> results = this.manager.executeStreamingSelect(command, DatabaseInquirer.PAGE_SIZE, DatabaseInquirer.PAGE_SIZE, true)) {
+					rows = results.iterator();
+					more = rows.hasNext();
+					while (more && count < rowLimit && !this.model.cancelled) {
+						long renderMark;
+
+						row = rows.next();
+						renderMark = System.nanoTime();
+						PrinterHelper.printObject(page, row, summary);
+						page.append(System.lineSeparator());
+						count++;
+						if (count % DatabaseInquirer.PAGE_SIZE == 0) {
+							text = page.toString().replace("\t", "    ");
+							this.appendOutput(text);
+							tail.addLast(text);
+							page.setLength(0);
+							if (tail.size() > DatabaseInquirer.TAIL_SIZE / DatabaseInquirer.PAGE_SIZE) {
+								this.discardOutput(tail.removeFirst().length());
+								discarded += DatabaseInquirer.PAGE_SIZE;
+							}
+						}
+						renderTime += System.nanoTime() - renderMark;
+
+						more = rows.hasNext();
+					}
+				}
 				this.manager.commitTransaction();
-				endTime = System.currentTimeMillis();
+				queryTime = System.nanoTime() - mark - renderTime;
+				tail.addLast(page.toString().replace("\t", "    "));
+
+				if (!more)
+					status = "";
+				else if (this.model.cancelled)
+					status = " (cancelled by the user)";
+				else
+					status = String.format(" (stopped at the row limit of %d)", rowLimit);
 
 				buffer = new StringBuilder();
-				buffer.append(String.format("%d object%s were retrieved in %d ms%n%n", objects.size(), objects.size() == 1 ? "" : "s", endTime - startTime));
-				for (final Object object : objects) {
-					PrinterHelper.printObject(buffer, object, this.components.summaryToggle.isSelected());
-					buffer.append(System.lineSeparator());
-				}
-				output = buffer.toString().replace("\t", "    ");
+				buffer.append(String.format("%d object%s were retrieved in %.3f ms (query: %.3f ms, rendering: %.3f ms)%s%n%n", //
+					count, count == 1 ? "" : "s", (queryTime + renderTime) / 1e6, queryTime / 1e6, renderTime / 1e6, status));
+				if (discarded != 0)
+					buffer.append(String.format("(the first %d objects are not shown)%n%n", discarded));
+				for (final String item : tail)
+					buffer.append(item);
+				output = buffer.toString();
 				error = false;
 
 				break;
@@ -662,12 +879,12 @@ public class DatabaseInquirer {
 				long startTime, endTime;
 				int affected;
 
-				startTime = System.currentTimeMillis();
+				startTime = System.nanoTime();
 				this.manager.startTransaction();
 				affected = this.manager.executeUpdate(command);
 				this.manager.commitTransaction();
-				endTime = System.currentTimeMillis();
-				output = String.format("%d object%s affected in %d ms%n%n%n", affected, affected == 1 ? "" : "s", endTime - startTime);
+				endTime = System.nanoTime();
+				output = String.format("%d object%s affected in %.3f ms%n%n%n", affected, affected == 1 ? "" : "s", (endTime - startTime) / 1e6);
 				error = false;
 
 				break;
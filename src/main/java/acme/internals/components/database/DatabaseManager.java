@@ -13,25 +13,52 @@
 package acme.internals.components.database;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.Metamodel;
 
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.Version;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.service.ServiceRegistry;
 import org.hibernate.tool.hbm2ddl.SchemaExport;
 import org.hibernate.tool.hbm2ddl.SchemaExport.Action;
@@ -42,12 +69,15 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import acme.client.data.AbstractEntity;
 import acme.client.helpers.CollectionHelper;
 import acme.client.helpers.RandomHelper;
 import acme.client.helpers.StringHelper;
 import acme.internals.components.exceptions.PassThroughException;
+import acme.internals.helpers.EnvironmentHelper;
 import lombok.CustomLog;
 
 @Component
@@ -59,6 +89,11 @@ public class DatabaseManager {
 	protected DatabaseManager() {
 		this.definitions = new ThreadLocal<DefaultTransactionDefinition>();
 		this.statuses = new ThreadLocal<TransactionStatus>();
+		this.startMoments = new ThreadLocal<Long>();
+		this.statementMarks = new ThreadLocal<Long>();
+		this.sessions = new ThreadLocal<Session>();
+		this.pendingEvictions = new ThreadLocal<Boolean>();
+		this.schemaScripts = new EnumMap<SchemaOperation, List<String>>(SchemaOperation.class);
 	}
 
 	// Internal state ---------------------------------------------------------
@@ -68,8 +103,30 @@ public class DatabaseManager {
 	private PlatformTransactionManager					transactionManager;
 	@Autowired
 	private EntityManager								entityManager;
+	@Autowired
+	private DatabaseMetrics								metrics;
 	private ThreadLocal<DefaultTransactionDefinition>	definitions;
 	private ThreadLocal<TransactionStatus>				statuses;
+	private ThreadLocal<Long>							startMoments;
+	private ThreadLocal<Long>							statementMarks;
+	private ThreadLocal<Session>						sessions;
+	private ThreadLocal<Boolean>						pendingEvictions;
+
+	// HINT: the schema scripts depend on the entity model and the dialect only, so they are
+	// HINT+ generated once per model version and then reused, both in memory and on disk.
+
+	private String										schemaFingerprint;
+	private Metadata									schemaMetadata;
+	private Map<SchemaOperation, List<String>>			schemaScripts;
+
+	// HINT: the snapshot is a copy of every table right after the database was populated; the
+	// HINT+ key identifies the data with which it was populated.
+
+	private String										snapshotKey;
+
+	private static final String							SNAPSHOT_KEY_TABLE	= "acme_snapshot_key";
+
+	private static final Pattern						TRUNCATE_PATTERN	= Pattern.compile("^\\s*truncate\\s+table\\s+(?<TABLE>\\w+)", Pattern.CASE_INSENSITIVE);
 
 
 	protected enum SchemaOperation {
@@ -102,12 +159,21 @@ public class DatabaseManager {
 	}
 
 	public Session getSession() {
+		assert this.isTransactionActive();
+
 		Session result;
-		EntityManager txem;
 
-		txem = this.entityManager.getEntityManagerFactory().createEntityManager();
-		result = txem.unwrap(Session.class);
+		// HINT: the session is the one that is bound to the current transaction, so it is shared
+		// HINT+ by every call within the transaction and it is closed when the transaction is
+		// HINT+ committed or rolled back; callers must not close it by themselves.
+
+		result = this.sessions.get();
+		if (result == null) {
+			result = this.entityManager.unwrap(Session.class);
+			this.sessions.set(result);
+		}
 		assert result != null;
+		this.metrics.recordSessionRequested();
 
 		return result;
 	}
@@ -130,6 +196,10 @@ public class DatabaseManager {
 
 		this.definitions.set(definition);
 		this.statuses.set(status);
+
+		this.startMoments.set(System.nanoTime());
+		this.statementMarks.set(StatementCounter.getCount());
+		this.metrics.recordTransactionStarted();
 	}
 
 	public void commitTransaction() {
@@ -138,6 +208,7 @@ public class DatabaseManager {
 		DefaultTransactionDefinition definition;
 		String name;
 		TransactionStatus status;
+		boolean committed;
 
 		definition = this.definitions.get();
 		name = definition.getName();
@@ -146,8 +217,15 @@ public class DatabaseManager {
 		status = this.statuses.get();
 		this.statuses.remove();
 		this.definitions.remove();
+		this.sessions.remove();
 
-		this.transactionManager.commit(status);
+		committed = false;
+		try {
+			this.transactionManager.commit(status);
+			committed = true;
+		} finally {
+			this.recordCompletion(committed);
+		}
 	}
 
 	public void rollbackTransaction() {
@@ -164,8 +242,13 @@ public class DatabaseManager {
 		status = this.statuses.get();
 		this.statuses.remove();
 		this.definitions.remove();
+		this.sessions.remove();
 
-		this.transactionManager.rollback(status);
+		try {
+			this.transactionManager.rollback(status);
+		} finally {
+			this.recordCompletion(false);
+		}
 	}
 
 	public void setReadUncommittedIsolationLevel() {
@@ -200,6 +283,7 @@ public class DatabaseManager {
 
 		DatabaseManager.logger.debug("Persisting entity '{}'.", StringHelper.toIdentity(entity));
 		this.entityManager.persist(entity);
+		this.metrics.recordPersisted();
 	}
 
 	public void persist(final Collection<AbstractEntity> entities) {
@@ -216,6 +300,7 @@ public class DatabaseManager {
 
 		DatabaseManager.logger.debug("Removing entity '{}'.", StringHelper.toIdentity(entity));
 		this.entityManager.remove(entity);
+		this.metrics.recordRemoved();
 	}
 
 	public void remove(final Collection<AbstractEntity> entities) {
@@ -232,6 +317,7 @@ public class DatabaseManager {
 
 		DatabaseManager.logger.debug("Merging entity '{}'.", StringHelper.toIdentity(entity));
 		this.entityManager.merge(entity);
+		this.metrics.recordMerged();
 	}
 
 	public void merge(final Collection<AbstractEntity> entities) {
@@ -245,8 +331,9 @@ public class DatabaseManager {
 	public void clear() {
 		assert this.isTransactionActive();
 
-		DatabaseManager.logger.debug("Closing transaction context.");
-		this.entityManager.close();
+		// HINT: the context is cleared, not closed, since it is closed with its transaction.
+		DatabaseManager.logger.debug("Clearing transaction context.");
+		this.entityManager.clear();
 	}
 
 	// Running scripts --------------------------------------------------------
@@ -259,11 +346,10 @@ public class DatabaseManager {
 		try {
 			this.startTransaction();
 			name = this.getTransactionName();
-			try (Session session = this.getSession()) {
-				session.doWork(connection -> {
-					Statement statement;
+			this.getSession().doWork(connection -> {
+				int[] counts;
 
-					statement = connection.createStatement();
+				try (Statement statement = connection.createStatement()) {
 					DatabaseManager.logger.debug("Creating batch for transaction {}.", name);
 					for (final String command : commands)
 						if (!StringHelper.isBlank(command)) {
@@ -271,10 +357,13 @@ public class DatabaseManager {
 							statement.addBatch(command);
 						}
 					DatabaseManager.logger.debug("Submitting batch in transaction {}.", name);
-					statement.executeBatch();
-				});
-			}
+					counts = statement.executeBatch();
+				}
+				// HINT: batches are sent through JDBC directly, so Hibernate does not inspect them.
+				StatementCounter.count(counts.length);
+			});
 			this.commitTransaction();
+			this.evictCaches();
 		} catch (final Throwable oops) {
 			if (this.isTransactionActive())
 				this.rollbackTransaction();
@@ -285,45 +374,105 @@ public class DatabaseManager {
 	// Schema management ------------------------------------------------------
 
 	public void createSchema() {
-		Metadata metadata;
 		List<String> dropScript, createScript;
 
-		metadata = this.buildMetadataSources();
+		this.dropSnapshot();
 
 		DatabaseManager.logger.debug("Dropping existing database schema, if any.");
-		dropScript = this.generateScript(metadata, SchemaOperation.DROP);
+		dropScript = this.getSchemaScript(SchemaOperation.DROP);
 		this.executeScript(dropScript);
 
 		DatabaseManager.logger.debug("Creating database schema.");
-		createScript = this.generateScript(metadata, SchemaOperation.CREATE);
+		createScript = this.getSchemaScript(SchemaOperation.CREATE);
 		this.executeScript(createScript);
 	}
 
 	public void cleanSchema() {
-		Metadata metadata;
 		List<String> clearScript;
 
-		metadata = this.buildMetadataSources();
+		this.dropSnapshot();
 
 		DatabaseManager.logger.debug("Cleaning database schema.");
-		clearScript = this.generateScript(metadata, SchemaOperation.CLEAN);
+		clearScript = this.getSchemaScript(SchemaOperation.CLEAN);
 		this.executeScript(clearScript);
 	}
 
+	// Snapshot management ----------------------------------------------------
+
+	public void takeSnapshot(final String key) {
+		assert !StringHelper.isBlank(key);
+
+		List<String> script;
+
+		DatabaseManager.logger.debug("Taking a snapshot of the database.");
+		script = new ArrayList<String>();
+		script.add("set foreign_key_checks=0;");
+		for (final String table : this.getSchemaTables()) {
+			script.add(String.format("drop table if exists %s;", DatabaseManager.computeSnapshotTable(table)));
+			script.add(String.format("create table %s like %s;", DatabaseManager.computeSnapshotTable(table), table));
+			script.add(String.format("insert into %s select * from %s;", DatabaseManager.computeSnapshotTable(table), table));
+		}
+		script.add(String.format("drop table if exists %s;", DatabaseManager.SNAPSHOT_KEY_TABLE));
+		script.add(String.format("create table %s (snapshot_key varchar(255) not null);", DatabaseManager.SNAPSHOT_KEY_TABLE));
+		script.add(String.format("insert into %s values ('%s');", DatabaseManager.SNAPSHOT_KEY_TABLE, key.replace("'", "''")));
+		script.add("set foreign_key_checks=1;");
+		this.executeScript(script);
+
+		this.snapshotKey = key;
+		DirtyTableTracker.reset();
+	}
+
+	public boolean restoreSnapshot(final String key) {
+		assert !StringHelper.isBlank(key);
+
+		boolean result;
+		List<String> tables, script;
+		Set<String> dirtyTables;
+
+		// HINT: only the tables written since the snapshot was taken are restored.  The rows are
+		// HINT+ restored with their original identifiers, so the references from the tables that
+		// HINT+ are not restored remain valid; that is why the order in which the tables are
+		// HINT+ restored does not matter, and foreign keys are not checked meanwhile.  Hibernate's
+		// HINT+ sequences are always restored since they are not updated by inspected statements.
+		// HINT+ The key is also checked against the one stored in the database, since the database
+		// HINT+ might have been changed, e.g., re-created, by another process in the meantime.
+
+		result = key.equals(this.snapshotKey) && !DirtyTableTracker.isAllDirty() && this.verifySnapshotKey(key);
+		if (result) {
+			tables = this.getSchemaTables();
+			dirtyTables = DirtyTableTracker.getTables();
+			script = new ArrayList<String>();
+			script.add("set foreign_key_checks=0;");
+			for (final String table : tables)
+				if (dirtyTables.contains(table.toLowerCase()) || table.equalsIgnoreCase("hibernate_sequences")) {
+					script.add(String.format("truncate table %s;", table));
+					script.add(String.format("insert into %s select * from %s;", table, DatabaseManager.computeSnapshotTable(table)));
+				}
+			script.add("set foreign_key_checks=1;");
+			DatabaseManager.logger.debug("Restoring {} dirty table(s) out of {}: {}.", dirtyTables.size(), tables.size(), dirtyTables);
+			this.executeScript(script);
+			DirtyTableTracker.reset();
+		}
+
+		return result;
+	}
+
 	// Command execution ------------------------------------------------......
 
 	public void executeCommand(final String command) {
 		assert !StringHelper.isBlank(command);
+		assert this.isTransactionActive();
 
 		DatabaseManager.logger.debug("Executing command '{}'.", command);
-		try (Session session = this.getSession()) {
-			session.doWork(connection -> {
-				Statement statement;
-
-				statement = connection.createStatement();
+		DirtyTableTracker.record(command); // HINT: commands are sent through JDBC directly.
+		this.getSession().doWork(connection -> {
+			try (Statement statement = connection.createStatement()) {
 				statement.execute(command);
-			});
-		}
+			}
+			StatementCounter.count(1);
+		});
+		if (!DirtyTableTracker.isRead(command))
+			this.evictCachesAfterCommit();
 	}
 
 	public int executeUpdate(final String command) {
@@ -353,8 +502,395 @@ public class DatabaseManager {
 		return result;
 	}
 
+	public ScrollableResults executeScrollableSelect(final String command, final int fetchSize) {
+		assert !StringHelper.isBlank(command);
+		assert fetchSize > 0;
+
+		// HINT: the rows are fetched from a forward-only cursor in blocks of fetchSize rows,
+		// HINT+ so that the caller can process large results without materialising them.  The
+		// HINT+ entities are loaded in read-only mode and bypass the second-level cache, and
+		// HINT+ the caller is responsible for closing the results before the transaction ends.
+
+		ScrollableResults result;
+
+		DatabaseManager.logger.debug("Executing command '{}' with fetch size {}.", command, fetchSize);
+		result = this.createScrollableResults(command, fetchSize, true);
+
+		return result;
+	}
+
+	public Stream<Object> executeStreamingSelect(final String command) {
+		assert !StringHelper.isBlank(command);
+
+		Stream<Object> result;
+		int fetchSize, clearInterval;
+
+		fetchSize = EnvironmentHelper.getProperty("acme.database.fetch-size", Integer.class, 100);
+		clearInterval = EnvironmentHelper.getProperty("acme.database.clear-interval", Integer.class, 1000);
+		result = this.executeStreamingSelect(command, fetchSize, clearInterval, true);
+
+		return result;
+	}
+
+	public Stream<Object> executeStreamingSelect(final String command, final int fetchSize, final int clearInterval, final boolean readOnly) {
+		assert !StringHelper.isBlank(command);
+		assert fetchSize > 0;
+		assert clearInterval >= 0;
+
+		// HINT: the rows are streamed from a forward-only cursor, so that large results can be
+		// HINT+ processed in constant memory.  Every clearInterval rows, the persistence context
+		// HINT+ is cleared so that the entities fetched so far can be reclaimed, which means that
+		// HINT+ they are detached by then; a zero interval means that it is never cleared.  If the
+		// HINT+ rows are not read only, the persistence context is flushed before it is cleared,
+		// HINT+ so that the changes made to the entities fetched so far are not lost.  Rows
+		// HINT+ with a single column are streamed as their only value.  The stream must be closed
+		// HINT+ before the transaction ends, e.g., by means of a try-with-resources statement.
+
+		Stream<Object> result;
+		ScrollableResults results;
+		Spliterator<Object> spliterator;
+
+		DatabaseManager.logger.debug("Streaming command '{}' with fetch size {} and clear interval {}.", command, fetchSize, clearInterval);
+		results = this.createScrollableResults(command, fetchSize, readOnly);
+		spliterator = new Spliterators.AbstractSpliterator<Object>(Long.MAX_VALUE, Spliterator.ORDERED) {
+
+			private long count = 0;
+
+
+			@Override
+			public boolean tryAdvance(final Consumer<? super Object> action) {
+				assert action != null;
+
+				boolean result;
+				Object[] row;
+
+				if (clearInterval != 0 && this.count != 0 && this.count % clearInterval == 0) {
+					if (!readOnly)
+						DatabaseManager.this.entityManager.flush();
+					DatabaseManager.this.entityManager.clear();
+				}
+
+				result = results.next();
+				if (result) {
+					row = results.get();
+					action.accept(row.length == 1 ? row[0] : row);
+					this.count++;
+				}
+
+				return result;
+			}
+		};
+		result = StreamSupport.stream(spliterator, false).onClose(results::close);
+
+		return result;
+	}
+
 	// Ancillary methods ------------------------------------------------------
 
+	protected ScrollableResults createScrollableResults(final String command, final int fetchSize, final boolean readOnly) {
+		assert !StringHelper.isBlank(command);
+		assert fetchSize > 0;
+
+		ScrollableResults result;
+		org.hibernate.query.Query<?> query;
+
+		query = this.createQuery(command).unwrap(org.hibernate.query.Query.class);
+		query.setFetchSize(fetchSize);
+		query.setReadOnly(readOnly);
+		query.setCacheMode(CacheMode.IGNORE);
+		result = query.scroll(ScrollMode.FORWARD_ONLY);
+
+		return result;
+	}
+
+	protected void dropSnapshot() {
+		List<String> script;
+
+		this.snapshotKey = null;
+
+		script = new ArrayList<String>();
+		for (final String table : this.findSnapshotTables())
+			script.add(String.format("drop table if exists %s;", table));
+		if (!script.isEmpty()) {
+			DatabaseManager.logger.debug("Dropping the snapshot of the database.");
+			this.executeScript(script);
+		}
+	}
+
+	protected List<String> findSnapshotTables() {
+		List<String> result;
+
+		try {
+			this.startTransaction();
+			result = this.getSession().doReturningWork(connection -> {
+				List<String> tables;
+
+				tables = new ArrayList<String>();
+				try (Statement statement = connection.createStatement(); //
+					ResultSet resultSet = statement.executeQuery("select table_name from information_schema.tables where table_schema = database() and table_name like 'acme\\_snapshot\\_%'")) {
+					while (resultSet.next())
+						tables.add(resultSet.getString(1));
+				}
+
+				return tables;
+			});
+			this.commitTransaction();
+		} catch (final Throwable oops) {
+			if (this.isTransactionActive())
+				this.rollbackTransaction();
+			throw new PassThroughException(oops);
+		}
+
+		return result;
+	}
+
+	protected boolean verifySnapshotKey(final String key) {
+		assert !StringHelper.isBlank(key);
+
+		boolean result;
+
+		// HINT: the key cannot be verified if the table where it is stored does not exist.
+
+		try {
+			this.startTransaction();
+			result = this.getSession().doReturningWork(connection -> {
+				boolean verified;
+
+				try (Statement statement = connection.createStatement(); //
+					ResultSet resultSet = statement.executeQuery(String.format("select snapshot_key from %s", DatabaseManager.SNAPSHOT_KEY_TABLE))) {
+					verified = resultSet.next() && key.equals(resultSet.getString(1)) && !resultSet.next();
+				} catch (final SQLException oops) {
+					verified = false;
+				}
+
+				return verified;
+			});
+			this.commitTransaction();
+		} catch (final Throwable oops) {
+			if (this.isTransactionActive())
+				this.rollbackTransaction();
+			throw new PassThroughException(oops);
+		}
+
+		if (!result)
+			DatabaseManager.logger.debug("The snapshot key could not be verified against the database.");
+
+		return result;
+	}
+
+	protected void evictCaches() {
+		// HINT: scripts and commands are sent through JDBC directly, so Hibernate cannot tell
+		// HINT+ which cached entities or query results they invalidate; that is why the whole
+		// HINT+ second-level cache is evicted, which is what keeps it consistent when the schema
+		// HINT+ is cleaned or the populator restores a snapshot.
+
+		DatabaseManager.logger.debug("Evicting the second-level cache.");
+		this.entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getCache().evictAllRegions();
+	}
+
+	protected void evictCachesAfterCommit() {
+		assert this.isTransactionActive();
+
+		// HINT: the cache is evicted once the transaction commits, since otherwise other threads
+		// HINT+ might cache again the data that the transaction has not committed yet; it is not
+		// HINT+ evicted at all if the transaction is rolled back.
+
+		if (this.pendingEvictions.get() == null) {
+			this.pendingEvictions.set(Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(final int status) {
+					DatabaseManager.this.pendingEvictions.remove();
+					if (status == TransactionSynchronization.STATUS_COMMITTED)
+						DatabaseManager.this.evictCaches();
+				}
+
+			});
+		}
+	}
+
+	protected void recordCompletion(final boolean committed) {
+		Long startMoment, statementMark;
+		long duration, statements;
+
+		startMoment = this.startMoments.get();
+		statementMark = this.statementMarks.get();
+		this.startMoments.remove();
+		this.statementMarks.remove();
+
+		if (startMoment != null && statementMark != null) {
+			duration = System.nanoTime() - startMoment;
+			statements = StatementCounter.getCount() - statementMark;
+			this.metrics.recordTransactionCompleted(committed, duration, statements);
+		}
+	}
+
+	protected synchronized List<String> getSchemaScript(final SchemaOperation operation) {
+		assert operation != null;
+
+		List<String> result;
+		boolean cacheEnabled;
+		Path cacheFile;
+
+		cacheEnabled = EnvironmentHelper.getProperty("acme.database.schema-cache-enabled", Boolean.class, true);
+		if (this.schemaFingerprint == null)
+			this.schemaFingerprint = this.computeSchemaFingerprint();
+
+		result = this.schemaScripts.get(operation);
+		cacheFile = null;
+		if (result == null && cacheEnabled) {
+			cacheFile = Path.of(EnvironmentHelper.getRequiredProperty("acme.database.schema-cache-directory"), //
+				String.format("%s-%s.sql", this.schemaFingerprint, operation.name().toLowerCase()));
+			result = this.loadSchemaScript(cacheFile);
+		}
+		if (result == null) {
+			DatabaseManager.logger.debug("Generating {} script for schema {}.", operation, this.schemaFingerprint);
+			if (this.schemaMetadata == null)
+				this.schemaMetadata = this.buildMetadataSources();
+			result = this.generateScript(this.schemaMetadata, operation);
+			if (cacheFile != null)
+				this.storeSchemaScript(cacheFile, result);
+		}
+		this.schemaScripts.put(operation, result);
+
+		return result;
+	}
+
+	protected List<String> getSchemaTables() {
+		List<String> result;
+		Matcher matcher;
+
+		// HINT: the clean script truncates every table in the schema, so it lists them all.
+
+		result = new ArrayList<String>();
+		for (final String statement : this.getSchemaScript(SchemaOperation.CLEAN)) {
+			matcher = DatabaseManager.TRUNCATE_PATTERN.matcher(statement);
+			if (matcher.lookingAt())
+				result.add(matcher.group("TABLE"));
+		}
+
+		return result;
+	}
+
+	protected static String computeSnapshotTable(final String table) {
+		assert !StringHelper.isBlank(table);
+
+		String result;
+
+		result = String.format("acme_snapshot_%s", table);
+
+		return result;
+	}
+
+	protected String computeSchemaFingerprint() {
+		String result;
+		MessageDigest digest;
+		Metamodel metamodel;
+		SortedMap<String, Class<?>> clazzes;
+		SortedMap<String, String> properties;
+		String dialect, framework;
+
+		// HINT: the fingerprint covers the byte code of the entities, embeddables, and mapped
+		// HINT+ superclasses, which includes their mapping annotations, plus every input that
+		// HINT+ may change the schema script, namely: the dialect, the version of Hibernate, the
+		// HINT+ version of the framework, the naming strategies, and the Hibernate properties.
+		// HINT+ The properties whose values are not plain values are fingerprinted by class.
+
+		metamodel = this.entityManager.getMetamodel();
+		clazzes = new TreeMap<String, Class<?>>();
+		for (final ManagedType<?> type : metamodel.getManagedTypes())
+			if (type.getJavaType() != null)
+				clazzes.put(type.getJavaType().getName(), type.getJavaType());
+		dialect = this.entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect().getClass().getName();
+		framework = EnvironmentHelper.getProperty("acme.framework.versioned-name", String.class, "");
+
+		properties = new TreeMap<String, String>();
+		for (final Map.Entry<String, Object> entry : this.entityManager.getEntityManagerFactory().getProperties().entrySet()) {
+			String key;
+			Object value;
+
+			key = entry.getKey();
+			value = entry.getValue();
+			if (key.startsWith("hibernate.") && value != null)
+				properties.put(key, value instanceof String || value instanceof Number || value instanceof Boolean ? value.toString() : value.getClass().getName());
+		}
+		properties.put("spring.jpa.hibernate.naming.physical-strategy", EnvironmentHelper.getProperty("spring.jpa.hibernate.naming.physical-strategy", String.class, ""));
+		properties.put("spring.jpa.hibernate.naming.implicit-strategy", EnvironmentHelper.getProperty("spring.jpa.hibernate.naming.implicit-strategy", String.class, ""));
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+			digest.update(Version.getVersionString().getBytes(StandardCharsets.UTF_8));
+			digest.update(dialect.getBytes(StandardCharsets.UTF_8));
+			digest.update(framework.getBytes(StandardCharsets.UTF_8));
+			for (final Map.Entry<String, String> entry : properties.entrySet()) {
+				digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+				digest.update(entry.getValue().getBytes(StandardCharsets.UTF_8));
+			}
+			for (final Class<?> clazz : clazzes.values()) {
+				String resource;
+
+				digest.update(clazz.getName().getBytes(StandardCharsets.UTF_8));
+				resource = String.format("%s.class", clazz.getName().replace('.', '/'));
+				try (InputStream stream = clazz.getClassLoader().getResourceAsStream(resource)) {
+					if (stream != null)
+						digest.update(stream.readAllBytes());
+				}
+			}
+		} catch (final Throwable oops) {
+			throw new PassThroughException(oops);
+		}
+		result = HexFormat.of().formatHex(digest.digest(), 0, 16);
+
+		return result;
+	}
+
+	protected List<String> loadSchemaScript(final Path file) {
+		assert file != null;
+
+		List<String> result;
+
+		if (!Files.isRegularFile(file))
+			result = null;
+		else
+			try {
+				result = Files.readAllLines(file, StandardCharsets.UTF_8);
+				DatabaseManager.logger.debug("Loaded schema script from '{}'.", file);
+			} catch (final IOException oops) {
+				DatabaseManager.logger.warn("Could not read schema script '{}': {}", file, oops.getMessage());
+				result = null;
+			}
+
+		return result;
+	}
+
+	protected void storeSchemaScript(final Path file, final List<String> script) {
+		assert file != null;
+		assert !CollectionHelper.someNull(script);
+
+		List<String> lines;
+		Path temporaryFile;
+
+		// HINT: the script is stored one statement per line, which the exporter guarantees since
+		// HINT+ it does not format its output; it is written to a temporary file and then moved, so
+		// HINT+ that concurrent launchers never read a partial script.
+
+		lines = new ArrayList<String>();
+		for (final String statement : script)
+			if (!StringHelper.isBlank(statement))
+				lines.add(statement.replaceAll("[\\r\\n]+", " ").strip());
+
+		try {
+			Files.createDirectories(file.getParent());
+			temporaryFile = Files.createTempFile(file.getParent(), "schema", ".tmp");
+			Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			DatabaseManager.logger.debug("Stored schema script into '{}'.", file);
+		} catch (final IOException oops) {
+			DatabaseManager.logger.warn("Could not store schema script '{}': {}", file, oops.getMessage());
+		}
+	}
+
 	protected Metadata buildMetadataSources() {
 		Metadata result;
 		ServiceRegistry registry;
@@ -363,29 +899,25 @@ public class DatabaseManager {
 		Collection<EntityType<?>> entities;
 		Collection<EmbeddableType<?>> embeddables;
 
-		try (Session session = this.getSession()) {
-			registry = this.getRegistry(session);
-			sources = new MetadataSources(registry);
-			metamodel = this.entityManager.getMetamodel();
-			entities = metamodel.getEntities();
-			for (final EntityType<?> entity : entities)
-				sources.addAnnotatedClass(entity.getJavaType());
-			embeddables = metamodel.getEmbeddables();
-			for (final EmbeddableType<?> embeddable : embeddables)
-				sources.addAnnotatedClass(embeddable.getJavaType());
-			result = sources.buildMetadata();
-		}
+		registry = this.getRegistry();
+		sources = new MetadataSources(registry);
+		metamodel = this.entityManager.getMetamodel();
+		entities = metamodel.getEntities();
+		for (final EntityType<?> entity : entities)
+			sources.addAnnotatedClass(entity.getJavaType());
+		embeddables = metamodel.getEmbeddables();
+		for (final EmbeddableType<?> embeddable : embeddables)
+			sources.addAnnotatedClass(embeddable.getJavaType());
+		result = sources.buildMetadata();
 
 		return result;
 	}
 
-	@SuppressWarnings("deprecation")
-	protected ServiceRegistry getRegistry(final Session session) {
-		assert session != null;
-
+	protected ServiceRegistry getRegistry() {
 		final ServiceRegistry result;
 
-		result = session.getSessionFactory().getSessionFactory().getServiceRegistry().getParentServiceRegistry();
+		// HINT: the registry is got from the session factory, so that no session is required.
+		result = this.entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getServiceRegistry().getParentServiceRegistry();
 
 		return result;
 	}
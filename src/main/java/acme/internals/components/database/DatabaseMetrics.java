@@ -0,0 +1,260 @@
+/*
+ * DatabaseMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import acme.internals.components.metrics.AbstractMetrics;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=database", description = "Transaction and persistence metrics")
+public class DatabaseMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected DatabaseMetrics() {
+		this.transactionsStarted = new LongAdder();
+		this.transactionsCommitted = new LongAdder();
+		this.transactionsRolledBack = new LongAdder();
+		this.transactionTime = new LongAdder();
+		this.maxTransactionTime = new AtomicLong();
+		this.statements = new LongAdder();
+		this.maxStatements = new AtomicLong();
+		this.entitiesPersisted = new LongAdder();
+		this.entitiesMerged = new LongAdder();
+		this.entitiesRemoved = new LongAdder();
+		this.entityManagersMark = new AtomicLong(SessionCounter.getCount());
+		this.sessionRequests = new LongAdder();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final LongAdder		transactionsStarted;
+	private final LongAdder		transactionsCommitted;
+	private final LongAdder		transactionsRolledBack;
+	private final LongAdder		transactionTime;
+	private final AtomicLong	maxTransactionTime;
+	private final LongAdder		statements;
+	private final AtomicLong	maxStatements;
+	private final LongAdder		entitiesPersisted;
+	private final LongAdder		entitiesMerged;
+	private final LongAdder		entitiesRemoved;
+	private final AtomicLong	entityManagersMark;	// HINT: number of sessions opened when the counters were reset
+	private final LongAdder		sessionRequests;
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "database";
+	}
+
+	@ManagedAttribute(description = "Number of transactions started")
+	public long getTransactionsStarted() {
+		return this.transactionsStarted.sum();
+	}
+
+	@ManagedAttribute(description = "Number of transactions committed")
+	public long getTransactionsCommitted() {
+		return this.transactionsCommitted.sum();
+	}
+
+	@ManagedAttribute(description = "Number of transactions rolled back")
+	public long getTransactionsRolledBack() {
+		return this.transactionsRolledBack.sum();
+	}
+
+	@ManagedAttribute(description = "Number of transactions that are still active")
+	public long getTransactionsActive() {
+		long result;
+
+		result = this.getTransactionsStarted() - this.getTransactionsCommitted() - this.getTransactionsRolledBack();
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Average duration of a transaction in milliseconds")
+	public double getAverageTransactionTime() {
+		double result;
+		long completed;
+
+		completed = this.getTransactionsCommitted() + this.getTransactionsRolledBack();
+		result = AbstractMetrics.toMillis(AbstractMetrics.computeAverage(this.transactionTime.sum(), completed));
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Maximum duration of a transaction in milliseconds")
+	public double getMaxTransactionTime() {
+		return AbstractMetrics.toMillis(this.maxTransactionTime.get());
+	}
+
+	@ManagedAttribute(description = "Number of statements executed within transactions")
+	public long getStatements() {
+		return this.statements.sum();
+	}
+
+	@ManagedAttribute(description = "Average number of statements per transaction")
+	public double getAverageStatementsPerTransaction() {
+		double result;
+		long completed;
+
+		completed = this.getTransactionsCommitted() + this.getTransactionsRolledBack();
+		result = AbstractMetrics.computeAverage(this.statements.sum(), completed);
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Maximum number of statements in a transaction")
+	public long getMaxStatementsPerTransaction() {
+		return this.maxStatements.get();
+	}
+
+	@ManagedAttribute(description = "Number of entities persisted")
+	public long getEntitiesPersisted() {
+		return this.entitiesPersisted.sum();
+	}
+
+	@ManagedAttribute(description = "Number of entities merged")
+	public long getEntitiesMerged() {
+		return this.entitiesMerged.sum();
+	}
+
+	@ManagedAttribute(description = "Number of entities removed")
+	public long getEntitiesRemoved() {
+		return this.entitiesRemoved.sum();
+	}
+
+	@ManagedAttribute(description = "Number of entity managers created")
+	public long getEntityManagersCreated() {
+		return SessionCounter.getCount() - this.entityManagersMark.get();
+	}
+
+	@ManagedAttribute(description = "Average number of entity managers created per transaction")
+	public double getAverageEntityManagersPerTransaction() {
+		double result;
+		long completed;
+
+		completed = this.getTransactionsCommitted() + this.getTransactionsRolledBack();
+		result = AbstractMetrics.computeAverage(this.getEntityManagersCreated(), completed);
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Number of sessions requested within transactions")
+	public long getSessionRequests() {
+		return this.sessionRequests.sum();
+	}
+
+	@ManagedAttribute(description = "Average number of sessions requested per transaction")
+	public double getAverageSessionRequestsPerTransaction() {
+		double result;
+		long completed;
+
+		completed = this.getTransactionsCommitted() + this.getTransactionsRolledBack();
+		result = AbstractMetrics.computeAverage(this.sessionRequests.sum(), completed);
+
+		return result;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void recordTransactionStarted() {
+		this.transactionsStarted.increment();
+	}
+
+	public void recordTransactionCompleted(final boolean committed, final long nanos, final long statements) {
+		assert nanos >= 0;
+		assert statements >= 0;
+
+		if (committed)
+			this.transactionsCommitted.increment();
+		else
+			this.transactionsRolledBack.increment();
+		this.transactionTime.add(nanos);
+		this.maxTransactionTime.accumulateAndGet(nanos, Math::max);
+		this.statements.add(statements);
+		this.maxStatements.accumulateAndGet(statements, Math::max);
+	}
+
+	public void recordPersisted() {
+		this.entitiesPersisted.increment();
+	}
+
+	public void recordMerged() {
+		this.entitiesMerged.increment();
+	}
+
+	public void recordRemoved() {
+		this.entitiesRemoved.increment();
+	}
+
+	public void recordSessionRequested() {
+		this.sessionRequests.increment();
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("transactionsStarted", this.getTransactionsStarted());
+		result.put("transactionsCommitted", this.getTransactionsCommitted());
+		result.put("transactionsRolledBack", this.getTransactionsRolledBack());
+		result.put("transactionsActive", this.getTransactionsActive());
+		result.put("averageTransactionTime", this.getAverageTransactionTime());
+		result.put("maxTransactionTime", this.getMaxTransactionTime());
+		result.put("statements", this.getStatements());
+		result.put("averageStatementsPerTransaction", this.getAverageStatementsPerTransaction());
+		result.put("maxStatementsPerTransaction", this.getMaxStatementsPerTransaction());
+		result.put("entitiesPersisted", this.getEntitiesPersisted());
+		result.put("entitiesMerged", this.getEntitiesMerged());
+		result.put("entitiesRemoved", this.getEntitiesRemoved());
+		result.put("entityManagersCreated", this.getEntityManagersCreated());
+		result.put("averageEntityManagersPerTransaction", this.getAverageEntityManagersPerTransaction());
+		result.put("sessionRequests", this.getSessionRequests());
+		result.put("averageSessionRequestsPerTransaction", this.getAverageSessionRequestsPerTransaction());
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		// HINT: the number of started transactions is not reset, since it is required to compute
+		// HINT+ how many of them are still active.  The remaining counters start from scratch.
+		this.transactionsStarted.add(-this.getTransactionsCommitted() - this.getTransactionsRolledBack());
+		this.transactionsCommitted.reset();
+		this.transactionsRolledBack.reset();
+		this.transactionTime.reset();
+		this.maxTransactionTime.set(0);
+		this.statements.reset();
+		this.maxStatements.set(0);
+		this.entitiesPersisted.reset();
+		this.entitiesMerged.reset();
+		this.entitiesRemoved.reset();
+		this.entityManagersMark.set(SessionCounter.getCount());
+		this.sessionRequests.reset();
+	}
+
+}
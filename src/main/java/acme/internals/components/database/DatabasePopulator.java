@@ -13,6 +13,8 @@
 package acme.internals.components.database;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -84,25 +86,71 @@ public class DatabasePopulator {
 		assert !StringHelper.someBlank(resourcePaths);
 
 		EntityWeb web;
+		boolean snapshotEnabled;
+		String key;
+
+		// HINT: if the schema is kept and the database was last populated with the same data,
+		// HINT+ then restoring the tables written since then is enough; otherwise, the database is
+		// HINT+ populated from scratch and a snapshot is taken for the next time.
 
 		try {
-			web = new EntityWeb();
-			for (final String resourcePath : resourcePaths) {
-				DatabasePopulator.logger.debug("Reading entities from '{}'.", resourcePath);
-				this.readEntities(web, resourcePath);
+			snapshotEnabled = EnvironmentHelper.getProperty("acme.database.snapshot-enabled", Boolean.class, true);
+			key = snapshotEnabled ? this.computePopulationKey(resourcePaths) : null;
+			if (snapshotEnabled && !createSchema && this.manager.restoreSnapshot(key))
+				DatabasePopulator.logger.debug("Restored the database from its snapshot.");
+			else {
+				web = new EntityWeb();
+				for (final String resourcePath : resourcePaths) {
+					DatabasePopulator.logger.debug("Reading entities from '{}'.", resourcePath);
+					this.readEntities(web, resourcePath);
+				}
+				this.validate(web);
+				this.sort(web);
+				if (createSchema)
+					this.manager.createSchema();
+				else
+					this.manager.cleanSchema();
+				this.persist(web);
+				if (snapshotEnabled)
+					this.manager.takeSnapshot(key);
 			}
-			this.validate(web);
-			this.sort(web);
-			if (createSchema)
-				this.manager.createSchema();
-			else
-				this.manager.cleanSchema();
-			this.persist(web);
 		} catch (final Throwable oops) {
 			throw new PassThroughException(oops);
 		}
 	}
 
+	protected String computePopulationKey(final String... resourcePaths) {
+		assert !StringHelper.someBlank(resourcePaths);
+
+		String result;
+		StringBuilder key;
+
+		// HINT: the key changes whenever a data file is added, removed, or modified.
+
+		key = new StringBuilder();
+		try {
+			for (final String resourcePath : resourcePaths) {
+				File folder;
+				File[] files;
+
+				folder = this.loader.getResource(resourcePath).getFile();
+				files = folder.listFiles();
+				key.append(resourcePath);
+				if (files != null) {
+					Arrays.sort(files);
+					for (final File file : files)
+						key.append('|').append(file.getName()).append(':').append(file.lastModified()).append(':').append(file.length());
+				}
+				key.append(';');
+			}
+		} catch (final IOException oops) {
+			throw new PassThroughException(oops);
+		}
+		result = key.toString();
+
+		return result;
+	}
+
 	protected void checkAttributeTypes(final Errors errors, final AbstractEntity entity) {
 		assert errors != null;
 		assert entity != null;
@@ -201,17 +249,19 @@ public class DatabasePopulator {
 	protected void sort(final EntityWeb web) {
 		assert web != null;
 
-		List<Class<AbstractEntity>> order;
+		List<List<Class<AbstractEntity>>> levels;
 		Set<List<Class<AbstractEntity>>> cycles;
 
 		DatabasePopulator.logger.debug("Sorting your entity clazzes topologically.");
 		web.close();
-		order = web.getClazzOrder();
+		levels = web.getClazzLevels();
 		cycles = web.getCycles();
 
+		// HINT: the clazzes in a level depend only on clazzes in previous levels.
 		DatabasePopulator.logger.debug("Best topological order for your entity clazzes:");
-		for (final Class<?> clazz : order)
-			DatabasePopulator.logger.debug("- {}", clazz.getName());
+		for (int index = 0; index < levels.size(); index++)
+			for (final Class<?> clazz : levels.get(index))
+				DatabasePopulator.logger.debug("- {} (level {})", clazz.getName(), index);
 
 		if (!cycles.isEmpty()) {
 			DatabasePopulator.logger.debug("Cycles between entity clazzes:");
@@ -224,7 +274,7 @@ public class DatabasePopulator {
 				for (final Class<AbstractEntity> clazz : cycle) {
 					message.append(separator);
 					message.append(clazz.getName());
-					separator = " -> ";
+					separator = ", ";
 				}
 				DatabasePopulator.logger.debug("- {}", message.toString());
 			}
@@ -239,6 +289,10 @@ public class DatabasePopulator {
 		List<Class<AbstractEntity>> order;
 		Collection<AbstractEntity> entities;
 
+		// HINT: the clazzes in a level are independent from each other, but they are persisted
+		// HINT+ sequentially, since they all share the same transaction and entity manager, which
+		// HINT+ are not thread safe.
+
 		try {
 			DatabasePopulator.logger.debug("Persisting your entities.");
 			order = web.getClazzOrder();
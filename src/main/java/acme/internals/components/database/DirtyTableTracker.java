@@ -0,0 +1,89 @@
+/*
+ * DirtyTableTracker.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import acme.client.helpers.StringHelper;
+
+public abstract class DirtyTableTracker {
+
+	// HINT: this tracker records the tables that have been written since the database was last
+	// HINT+ populated, by inspecting the statements that are sent to the database.  Reads and
+	// HINT+ session settings are ignored; statements that cannot be understood make the whole
+	// HINT+ database dirty, which is always a safe assumption.  Unlike statement counters, the
+	// HINT+ tracker is shared by every thread, since any of them may write to the database.
+
+	// Constructors -----------------------------------------------------------
+
+	protected DirtyTableTracker() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private static final Pattern		READ_PATTERN	= Pattern.compile("^\\s*(select|with|set|show|explain|call\\s+next\\s+value)\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern		WRITE_PATTERN	= Pattern.compile("^\\s*(insert\\s+into|replace\\s+into|update|delete\\s+from|truncate\\s+table)\\s+[`\"]?(?<TABLE>\\w+)", Pattern.CASE_INSENSITIVE);
+
+	private static final Set<String>	tables			= ConcurrentHashMap.newKeySet();
+	private static volatile boolean		allDirty		= false;
+
+	// Business methods -------------------------------------------------------
+
+
+	public static void record(final String sql) {
+		assert !StringHelper.isBlank(sql);
+
+		Matcher matcher;
+
+		if (!DirtyTableTracker.isRead(sql)) {
+			matcher = DirtyTableTracker.WRITE_PATTERN.matcher(sql);
+			if (matcher.lookingAt())
+				DirtyTableTracker.tables.add(matcher.group("TABLE").toLowerCase());
+			else
+				DirtyTableTracker.allDirty = true;
+		}
+	}
+
+	public static boolean isRead(final String sql) {
+		assert !StringHelper.isBlank(sql);
+
+		boolean result;
+
+		result = DirtyTableTracker.READ_PATTERN.matcher(sql).lookingAt();
+
+		return result;
+	}
+
+	public static boolean isAllDirty() {
+		return DirtyTableTracker.allDirty;
+	}
+
+	public static Set<String> getTables() {
+		Set<String> result;
+
+		result = new TreeSet<String>(DirtyTableTracker.tables);
+
+		return result;
+	}
+
+	public static void reset() {
+		DirtyTableTracker.tables.clear();
+		DirtyTableTracker.allDirty = false;
+	}
+
+}
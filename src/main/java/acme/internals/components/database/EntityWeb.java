@@ -70,6 +70,12 @@ public class EntityWeb implements Iterable<Entry<String, AbstractEntity>> {
 		return this.dependencies.getOrder();
 	}
 
+	public List<List<Class<AbstractEntity>>> getClazzLevels() {
+		assert this.isClosed();
+
+		return this.dependencies.getLevels();
+	}
+
 	public Set<List<Class<AbstractEntity>>> getCycles() {
 		assert this.isClosed();
 
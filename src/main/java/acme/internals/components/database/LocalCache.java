@@ -0,0 +1,202 @@
+/*
+ * LocalCache.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import acme.client.helpers.StringHelper;
+
+public class LocalCache {
+
+	// HINT: a local cache is an in-process map whose entries are evicted in least-recently-used
+	// HINT+ order when it is full and expire when their time to live elapses.  A maximum number
+	// HINT+ of entries or a time to live that is zero means that the cache is not bounded or
+	// HINT+ that its entries do not expire, respectively.  It is synchronised since the caches
+	// HINT+ are expected to be small and their operations short.
+
+	// Constructors -----------------------------------------------------------
+
+	public LocalCache(final String name, final int maxEntries, final long timeToLive) {
+		assert !StringHelper.isBlank(name);
+		assert maxEntries >= 0;
+		assert timeToLive >= 0;
+
+		this.name = name;
+		this.maxEntries = maxEntries;
+		this.timeToLive = timeToLive;
+		this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final String				name;
+	private final int					maxEntries;
+	private final long					timeToLive;
+	private final Map<Object, Entry>	entries;
+	private long						hits;
+	private long						puts;
+	private long						evictions;
+	private long						expirations;
+
+	// Properties -------------------------------------------------------------
+
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getMaxEntries() {
+		return this.maxEntries;
+	}
+
+	public long getTimeToLive() {
+		return this.timeToLive;
+	}
+
+	public synchronized int getSize() {
+		return this.entries.size();
+	}
+
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	public synchronized long getPuts() {
+		return this.puts;
+	}
+
+	public synchronized long getEvictions() {
+		return this.evictions;
+	}
+
+	public synchronized long getExpirations() {
+		return this.expirations;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public synchronized Object get(final Object key) {
+		assert key != null;
+
+		Object result;
+		Entry entry;
+
+		entry = this.entries.get(key);
+		if (entry == null)
+			result = null;
+		else if (this.isExpired(entry)) {
+			this.entries.remove(key);
+			this.expirations++;
+			result = null;
+		} else {
+			this.hits++;
+			result = entry.value;
+		}
+
+		return result;
+	}
+
+	public synchronized boolean contains(final Object key) {
+		assert key != null;
+
+		boolean result;
+		Entry entry;
+
+		entry = this.entries.get(key);
+		result = entry != null && !this.isExpired(entry);
+
+		return result;
+	}
+
+	public synchronized void put(final Object key, final Object value) {
+		assert key != null;
+		// HINT: value can be null
+
+		Entry entry;
+		Iterator<Entry> iterator;
+
+		entry = new Entry();
+		entry.value = value;
+		entry.moment = System.nanoTime();
+		this.entries.put(key, entry);
+		this.puts++;
+
+		if (this.maxEntries != 0 && this.entries.size() > this.maxEntries) {
+			iterator = this.entries.values().iterator();
+			while (this.entries.size() > this.maxEntries) {
+				iterator.next();
+				iterator.remove();
+				this.evictions++;
+			}
+		}
+	}
+
+	public synchronized void remove(final Object key) {
+		assert key != null;
+
+		this.entries.remove(key);
+	}
+
+	public synchronized void clear() {
+		this.entries.clear();
+	}
+
+	public synchronized Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("size", this.entries.size());
+		result.put("maxEntries", this.maxEntries);
+		result.put("timeToLive", this.timeToLive / 1_000_000_000L);
+		result.put("hits", this.hits);
+		result.put("puts", this.puts);
+		result.put("evictions", this.evictions);
+		result.put("expirations", this.expirations);
+
+		return result;
+	}
+
+	public synchronized void reset() {
+		this.hits = 0;
+		this.puts = 0;
+		this.evictions = 0;
+		this.expirations = 0;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected boolean isExpired(final Entry entry) {
+		assert entry != null;
+
+		boolean result;
+
+		result = this.timeToLive != 0 && System.nanoTime() - entry.moment >= this.timeToLive;
+
+		return result;
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+	protected static class Entry {
+
+		// Internal state -----------------------------------------------------
+
+		private Object	value;
+		private long	moment;
+
+	}
+
+}
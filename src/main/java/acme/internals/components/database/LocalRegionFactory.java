@@ -0,0 +1,144 @@
+/*
+ * LocalRegionFactory.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import acme.client.helpers.StringHelper;
+
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+	// HINT: Hibernate only caches entity hierarchies as a whole and every entity in the framework
+	// HINT+ descends from AbstractEntity, so the region of the hierarchy is classified: it keeps a
+	// HINT+ separate cache for every entity class that must be cached and ignores the others.  The
+	// HINT+ remaining regions, i.e., collections and queries, have a cache each with the default
+	// HINT+ bounds.  The timestamps region is never bounded, since evicting a timestamp would make
+	// HINT+ the query results that depend on it look up to date.
+
+	// Constructors -----------------------------------------------------------
+
+	public LocalRegionFactory(final Map<String, LocalCache> entityCaches, final int maxEntries, final long timeToLive, final CacheMetrics metrics) {
+		assert entityCaches != null;
+		assert maxEntries >= 0;
+		assert timeToLive >= 0;
+		assert metrics != null;
+
+		this.entityCaches = entityCaches;
+		this.maxEntries = maxEntries;
+		this.timeToLive = timeToLive;
+		this.metrics = metrics;
+		this.storages = new CopyOnWriteArrayList<LocalStorageAccess>();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final Map<String, LocalCache>	entityCaches;
+	private final int						maxEntries;
+	private final long						timeToLive;
+	private final CacheMetrics				metrics;
+	private final List<LocalStorageAccess>	storages;
+
+	// RegionFactory interface ------------------------------------------------
+
+
+	@Override
+	public AccessType getDefaultAccessType() {
+		return AccessType.NONSTRICT_READ_WRITE;
+	}
+
+	@Override
+	public long nextTimestamp() {
+		return System.currentTimeMillis();
+	}
+
+	// RegionFactoryTemplate interface ----------------------------------------
+
+	@Override
+	protected void prepareForUse(final SessionFactoryOptions settings, @SuppressWarnings("rawtypes") final Map configValues) {
+		// HINT: the caches are configured when the factory is created, so there is nothing to do.
+	}
+
+	@Override
+	protected void releaseFromUse() {
+		for (final LocalStorageAccess storage : this.storages) {
+			storage.release();
+			this.metrics.unregister(storage);
+		}
+		this.storages.clear();
+	}
+
+	@Override
+	protected DomainDataStorageAccess createDomainDataStorageAccess(final DomainDataRegionConfig regionConfig, final DomainDataRegionBuildingContext buildingContext) {
+		assert regionConfig != null;
+		assert buildingContext != null;
+
+		DomainDataStorageAccess result;
+		String regionName;
+
+		regionName = regionConfig.getRegionName();
+		if (!regionConfig.getEntityCaching().isEmpty())
+			result = this.register(new LocalStorageAccess(regionName, this.entityCaches, true));
+		else
+			result = this.register(new LocalStorageAccess(regionName, Map.of(regionName, new LocalCache(regionName, this.maxEntries, this.timeToLive)), false));
+
+		return result;
+	}
+
+	@Override
+	protected StorageAccess createQueryResultsRegionStorageAccess(final String regionName, final SessionFactoryImplementor sessionFactory) {
+		assert !StringHelper.isBlank(regionName);
+		assert sessionFactory != null;
+
+		StorageAccess result;
+
+		result = this.register(new LocalStorageAccess(regionName, Map.of(regionName, new LocalCache(regionName, this.maxEntries, this.timeToLive)), false));
+
+		return result;
+	}
+
+	@Override
+	protected StorageAccess createTimestampsRegionStorageAccess(final String regionName, final SessionFactoryImplementor sessionFactory) {
+		assert !StringHelper.isBlank(regionName);
+		assert sessionFactory != null;
+
+		StorageAccess result;
+
+		result = this.register(new LocalStorageAccess(regionName, Map.of(regionName, new LocalCache(regionName, 0, 0)), false));
+
+		return result;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected LocalStorageAccess register(final LocalStorageAccess storage) {
+		assert storage != null;
+
+		this.storages.add(storage);
+		this.metrics.register(storage);
+
+		return storage;
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * LocalStorageAccess.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import acme.client.helpers.StringHelper;
+
+public class LocalStorageAccess implements DomainDataStorageAccess {
+
+	// HINT: the storage of a region is a collection of local caches.  If the storage is
+	// HINT+ classified, the region stores entities and every cache holds the entities of a
+	// HINT+ given class, which is told by the cache entry itself; entities whose class has no
+	// HINT+ cache are simply not stored.  Otherwise, the storage has a single cache.
+
+	// Constructors -----------------------------------------------------------
+
+	public LocalStorageAccess(final String regionName, final Map<String, LocalCache> caches, final boolean classified) {
+		assert !StringHelper.isBlank(regionName);
+		assert caches != null;
+		assert classified || caches.size() == 1;
+
+		this.regionName = regionName;
+		this.caches = caches;
+		this.classified = classified;
+		this.misses = new LongAdder();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final String					regionName;
+	private final Map<String, LocalCache>	caches;
+	private final boolean					classified;
+	private final LongAdder					misses;
+
+	// Properties -------------------------------------------------------------
+
+
+	public String getRegionName() {
+		return this.regionName;
+	}
+
+	public Collection<LocalCache> getCaches() {
+		return this.caches.values();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	public long getHits() {
+		long result;
+
+		result = 0;
+		for (final LocalCache cache : this.caches.values())
+			result += cache.getHits();
+
+		return result;
+	}
+
+	// StorageAccess interface ------------------------------------------------
+
+	@Override
+	public Object getFromCache(final Object key, final SharedSessionContractImplementor session) {
+		assert key != null;
+
+		Object result;
+		Iterator<LocalCache> iterator;
+
+		result = null;
+		iterator = this.caches.values().iterator();
+		while (result == null && iterator.hasNext())
+			result = iterator.next().get(key);
+		if (result == null)
+			this.misses.increment();
+
+		return result;
+	}
+
+	@Override
+	public void putIntoCache(final Object key, final Object value, final SharedSessionContractImplementor session) {
+		assert key != null;
+
+		LocalCache cache;
+
+		cache = this.findCache(value);
+		if (cache != null)
+			cache.put(key, value);
+	}
+
+	@Override
+	public boolean contains(final Object key) {
+		assert key != null;
+
+		boolean result;
+		Iterator<LocalCache> iterator;
+
+		result = false;
+		iterator = this.caches.values().iterator();
+		while (!result && iterator.hasNext())
+			result = iterator.next().contains(key);
+
+		return result;
+	}
+
+	@Override
+	public void evictData() {
+		for (final LocalCache cache : this.caches.values())
+			cache.clear();
+	}
+
+	@Override
+	public void evictData(final Object key) {
+		assert key != null;
+
+		for (final LocalCache cache : this.caches.values())
+			cache.remove(key);
+	}
+
+	@Override
+	public void release() {
+		this.evictData();
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+		Map<String, Object> caches;
+
+		caches = new LinkedHashMap<String, Object>();
+		for (final LocalCache cache : this.caches.values())
+			caches.put(cache.getName(), cache.computeSnapshot());
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("hits", this.getHits());
+		result.put("misses", this.getMisses());
+		result.put("caches", caches);
+
+		return result;
+	}
+
+	public void reset() {
+		this.misses.reset();
+		for (final LocalCache cache : this.caches.values())
+			cache.reset();
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected LocalCache findCache(final Object value) {
+		// HINT: value can be null
+
+		LocalCache result;
+
+		if (this.classified)
+			result = value instanceof CacheEntry ? this.caches.get(((CacheEntry) value).getSubclass()) : null;
+		else
+			result = this.caches.values().iterator().next();
+
+		return result;
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * MonitoredDataSource.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import acme.client.helpers.StringHelper;
+import acme.internals.components.database.ConnectionPoolMetrics.Lease;
+import acme.internals.helpers.ServletHelper;
+import lombok.CustomLog;
+
+@CustomLog
+public class MonitoredDataSource extends DelegatingDataSource {
+
+	// HINT: this data source wraps the connection pool in order to time how long threads wait
+	// HINT+ for a connection and how long they hold it.  The figures are recorded in the
+	// HINT+ connection-pool metrics and, if the thread is serving a request, they are also
+	// HINT+ accumulated in the attributes of the request, so that they show up in its trace.
+	// HINT+ If statements must be inspected, the connections it returns also count the rows
+	// HINT+ read and the time spent in JDBC by the current thread; see StatementCounter.
+
+	// Constructors -----------------------------------------------------------
+
+	public MonitoredDataSource(final DataSource target, final ConnectionPoolMetrics metrics, final boolean statementInspection) {
+		super(target);
+
+		assert target != null;
+		assert metrics != null;
+
+		this.metrics = metrics;
+		this.statementInspection = statementInspection;
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	public static final String			WAIT_TIME_ATTRIBUTE	= "acme.connection-pool.wait-time";
+	public static final String			HOLD_TIME_ATTRIBUTE	= "acme.connection-pool.hold-time";
+
+	private final ConnectionPoolMetrics	metrics;
+	private final boolean				statementInspection;
+
+	// DataSource interface ---------------------------------------------------
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return this.acquireConnection(null, null);
+	}
+
+	@Override
+	public Connection getConnection(final String username, final String password) throws SQLException {
+		return this.acquireConnection(username, password);
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected Connection acquireConnection(final String username, final String password) throws SQLException {
+		// HINT: username and password are null if the default credentials must be used
+
+		Connection result;
+		Connection target;
+		HttpServletRequest request;
+		long startMoment, waitTime;
+		Lease lease;
+
+		request = MonitoredDataSource.getCurrentRequest();
+		this.metrics.recordRequested();
+		startMoment = System.nanoTime();
+		try {
+			target = username == null && password == null ? super.getConnection() : super.getConnection(username, password);
+		} catch (final SQLException | RuntimeException oops) {
+			this.metrics.recordFailed(System.nanoTime() - startMoment, oops instanceof SQLTransientConnectionException);
+			throw oops;
+		}
+		waitTime = System.nanoTime() - startMoment;
+
+		lease = new Lease(MonitoredDataSource.computeCommand(request), Thread.currentThread().getName());
+		this.metrics.recordAcquired(lease, waitTime);
+		if (request != null)
+			MonitoredDataSource.accumulate(request, MonitoredDataSource.WAIT_TIME_ATTRIBUTE, waitTime);
+
+		result = (Connection) DelegatingHandler.createProxy(ConnectionProxy.class, new LeaseHandler(target, lease));
+
+		return result;
+	}
+
+	protected void releaseConnection(final Lease lease) {
+		assert lease != null;
+
+		HttpServletRequest request;
+		long holdTime;
+
+		holdTime = this.metrics.recordReleased(lease);
+		request = MonitoredDataSource.getCurrentRequest();
+		if (request != null)
+			MonitoredDataSource.accumulate(request, MonitoredDataSource.HOLD_TIME_ATTRIBUTE, holdTime);
+		if (this.metrics.isLongHeld(holdTime))
+			MonitoredDataSource.logger.warn("A database connection was held for {} ms by '{}' on thread '{}'.", holdTime / 1_000_000, lease.getCommand(), lease.getThread());
+	}
+
+	protected static HttpServletRequest getCurrentRequest() {
+		HttpServletRequest result;
+		RequestAttributes attributes;
+
+		attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes instanceof ServletRequestAttributes)
+			result = ((ServletRequestAttributes) attributes).getRequest();
+		else
+			result = null;
+
+		return result;
+	}
+
+	protected static String computeCommand(final HttpServletRequest request) {
+		// HINT: request can be null, e.g., when the database is populated at start-up
+
+		String result;
+
+		if (request == null)
+			result = "(no request)";
+		else
+			result = String.format("%s %s", ServletHelper.getRequestMethod(request), ServletHelper.getRequestPath(request, false));
+
+		return result;
+	}
+
+	protected static void accumulate(final HttpServletRequest request, final String name, final long nanos) {
+		assert request != null;
+		assert !StringHelper.isBlank(name);
+		assert nanos >= 0;
+
+		Object value;
+		long total;
+
+		value = request.getAttribute(name);
+		total = value instanceof Long ? (Long) value + nanos : nanos;
+		request.setAttribute(name, total);
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+	protected static class DelegatingHandler implements InvocationHandler {
+
+		// Constructors -------------------------------------------------------
+
+		public DelegatingHandler(final Object target) {
+			assert target != null;
+
+			this.target = target;
+		}
+
+		// Internal state -----------------------------------------------------
+
+
+		private final Object target;
+
+		// Properties ---------------------------------------------------------
+
+
+		public Object getTarget() {
+			return this.target;
+		}
+
+		// InvocationHandler interface ----------------------------------------
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			Object result;
+
+			// HINT: proxies are compared by identity, since JDBC resources are usually kept in
+			// HINT+ hash-based collections by the frameworks that manage them.
+
+			switch (method.getName()) {
+			case "equals":
+				result = proxy == args[0];
+				break;
+			case "hashCode":
+				result = System.identityHashCode(proxy);
+				break;
+			default:
+				result = this.intercept(proxy, method, args);
+				break;
+			}
+
+			return result;
+		}
+
+		// Ancillary methods --------------------------------------------------
+
+		protected Object intercept(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			return this.delegate(method, args);
+		}
+
+		protected Object delegate(final Method method, final Object[] args) throws Throwable {
+			assert method != null;
+			// HINT: args can be null
+
+			Object result;
+
+			try {
+				result = method.invoke(this.target, args);
+			} catch (final InvocationTargetException oops) {
+				throw oops.getTargetException();
+			}
+
+			return result;
+		}
+
+		protected static Object createProxy(final Class<?> type, final InvocationHandler handler) {
+			assert type != null && type.isInterface();
+			assert handler != null;
+
+			Object result;
+
+			result = Proxy.newProxyInstance(MonitoredDataSource.class.getClassLoader(), new Class<?>[] {
+				type
+			}, handler);
+
+			return result;
+		}
+
+	}
+
+	protected class LeaseHandler extends DelegatingHandler {
+
+		// Constructors -------------------------------------------------------
+
+		public LeaseHandler(final Connection target, final Lease lease) {
+			super(target);
+
+			assert lease != null;
+
+			this.lease = lease;
+			this.released = false;
+		}
+
+		// Internal state -----------------------------------------------------
+
+
+		private final Lease	lease;
+		private boolean		released;
+
+		// DelegatingHandler interface ----------------------------------------
+
+
+		@Override
+		protected Object intercept(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			Object result;
+
+			switch (method.getName()) {
+			case "getTargetConnection":
+				result = this.getTarget();
+				break;
+			case "createStatement":
+			case "prepareStatement":
+			case "prepareCall":
+				result = this.delegate(method, args);
+				if (MonitoredDataSource.this.statementInspection)
+					result = DelegatingHandler.createProxy(method.getReturnType(), new StatementHandler(result));
+				break;
+			case "close":
+				try {
+					result = this.delegate(method, args);
+				} finally {
+					if (!this.released) {
+						this.released = true;
+						MonitoredDataSource.this.releaseConnection(this.lease);
+					}
+				}
+				break;
+			default:
+				result = this.delegate(method, args);
+				break;
+			}
+
+			return result;
+		}
+
+	}
+
+	protected static class StatementHandler extends DelegatingHandler {
+
+		// HINT: statements are timed while they are executed; their result sets are proxied so
+		// HINT+ that the rows read and the time spent fetching them are counted, too.
+
+		// Constructors -------------------------------------------------------
+
+		public StatementHandler(final Object target) {
+			super(target);
+		}
+
+		// DelegatingHandler interface ----------------------------------------
+
+		@Override
+		protected Object intercept(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			Object result;
+			long startMoment;
+
+			if (method.getName().startsWith("execute")) {
+				startMoment = System.nanoTime();
+				try {
+					result = this.delegate(method, args);
+				} finally {
+					StatementCounter.countTime(System.nanoTime() - startMoment);
+				}
+			} else
+				result = this.delegate(method, args);
+
+			if (result instanceof ResultSet)
+				result = DelegatingHandler.createProxy(ResultSet.class, new ResultSetHandler(result));
+
+			return result;
+		}
+
+	}
+
+	protected static class ResultSetHandler extends DelegatingHandler {
+
+		// Constructors -------------------------------------------------------
+
+		public ResultSetHandler(final Object target) {
+			super(target);
+		}
+
+		// DelegatingHandler interface ----------------------------------------
+
+		@Override
+		protected Object intercept(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			Object result;
+			long startMoment;
+
+			if (method.getName().equals("next")) {
+				startMoment = System.nanoTime();
+				try {
+					result = this.delegate(method, args);
+				} finally {
+					StatementCounter.countTime(System.nanoTime() - startMoment);
+				}
+				if (Boolean.TRUE.equals(result))
+					StatementCounter.countRows(1);
+			} else
+				result = this.delegate(method, args);
+
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * SessionCounter.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.BaseSessionEventListener;
+
+public class SessionCounter extends BaseSessionEventListener {
+
+	// Serialisation identifier -----------------------------------------------
+
+	private static final long		serialVersionUID	= 1L;
+
+	// Internal state ---------------------------------------------------------
+
+	// HINT: Hibernate instantiates this listener by itself for every session that it opens, so
+	// HINT+ it cannot be a Spring component; the number of sessions, i.e., entity managers, that
+	// HINT+ were opened is then kept in a static counter that is shared by every thread.
+
+	private static final LongAdder	count				= new LongAdder();
+
+	// Constructors -----------------------------------------------------------
+
+
+	public SessionCounter() {
+		SessionCounter.count.increment();
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public static long getCount() {
+		return SessionCounter.count.sum();
+	}
+
+}
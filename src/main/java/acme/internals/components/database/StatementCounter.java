@@ -0,0 +1,195 @@
+/*
+ * StatementCounter.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import acme.client.helpers.StringHelper;
+
+public class StatementCounter implements StatementInspector {
+
+	// Serialisation identifier -----------------------------------------------
+
+	private static final long			serialVersionUID	= 1L;
+
+	// Internal state ---------------------------------------------------------
+
+	// HINT: Hibernate instantiates this class by itself, so it cannot be a Spring component.
+	// HINT+ The counters are then kept per thread, which is where transactions live, too.  They
+	// HINT+ record the number of statements, the number of rows read, and the time spent in
+	// HINT+ JDBC in nanoseconds; the rows and the time are counted by MonitoredDataSource.
+
+	private static ThreadLocal<long[]>	counters			= ThreadLocal.withInitial(() -> new long[3]);
+
+	// HINT: a scope records the shapes of the statements that are inspected while it is open,
+	// HINT+ i.e., their text without literals or lists of parameters, so that statements that
+	// HINT+ are repeated in a loop can be told apart, e.g., when lazy associations are loaded
+	// HINT+ one by one.  Scopes are opened and closed per request.
+
+	private static ThreadLocal<Scope>	scopes				= new ThreadLocal<Scope>();
+
+	private static final Pattern		LITERAL_PATTERN		= Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern		LIST_PATTERN		= Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+	private static final Pattern		SPACE_PATTERN		= Pattern.compile("\\s+");
+
+	// Business methods -------------------------------------------------------
+
+
+	public static long getCount() {
+		long result;
+
+		result = StatementCounter.counters.get()[0];
+
+		return result;
+	}
+
+	public static long getRows() {
+		long result;
+
+		result = StatementCounter.counters.get()[1];
+
+		return result;
+	}
+
+	public static long getTime() {
+		long result;
+
+		result = StatementCounter.counters.get()[2];
+
+		return result;
+	}
+
+	public static void count(final int statements) {
+		assert statements >= 0;
+
+		StatementCounter.counters.get()[0] += statements;
+	}
+
+	public static void countRows(final long rows) {
+		assert rows >= 0;
+
+		StatementCounter.counters.get()[1] += rows;
+	}
+
+	public static void countTime(final long nanos) {
+		assert nanos >= 0;
+
+		StatementCounter.counters.get()[2] += nanos;
+	}
+
+	public static void openScope() {
+		Scope scope;
+
+		scope = new Scope();
+		scope.statements = StatementCounter.getCount();
+		scope.rows = StatementCounter.getRows();
+		scope.time = StatementCounter.getTime();
+		scope.shapes = new HashMap<String, Integer>();
+		StatementCounter.scopes.set(scope);
+	}
+
+	public static Scope closeScope() {
+		Scope result;
+
+		// HINT: the result is null if no scope was opened in the current thread.
+
+		result = StatementCounter.scopes.get();
+		if (result != null) {
+			StatementCounter.scopes.remove();
+			result.statements = StatementCounter.getCount() - result.statements;
+			result.rows = StatementCounter.getRows() - result.rows;
+			result.time = StatementCounter.getTime() - result.time;
+			for (final Map.Entry<String, Integer> entry : result.shapes.entrySet())
+				if (entry.getValue() > result.repetitions) {
+					result.repetitions = entry.getValue();
+					result.repeatedShape = entry.getKey();
+				}
+			result.shapes = null;
+		}
+
+		return result;
+	}
+
+	public static String computeShape(final String sql) {
+		assert !StringHelper.isBlank(sql);
+
+		String result;
+
+		result = StatementCounter.LITERAL_PATTERN.matcher(sql).replaceAll("?");
+		result = StatementCounter.LIST_PATTERN.matcher(result).replaceAll("?");
+		result = StatementCounter.SPACE_PATTERN.matcher(result).replaceAll(" ");
+		result = result.trim().toLowerCase();
+
+		return result;
+	}
+
+	// StatementInspector interface -------------------------------------------
+
+	@Override
+	public String inspect(final String sql) {
+		assert !StringHelper.isBlank(sql);
+
+		Scope scope;
+
+		StatementCounter.count(1);
+		DirtyTableTracker.record(sql);
+		scope = StatementCounter.scopes.get();
+		if (scope != null)
+			scope.shapes.merge(StatementCounter.computeShape(sql), 1, Integer::sum);
+
+		return sql;
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+	public static class Scope {
+
+		// Internal state -----------------------------------------------------
+
+		private long					statements;
+		private long					rows;
+		private long					time;
+		private int						repetitions;
+		private String					repeatedShape;
+		private Map<String, Integer>	shapes;
+
+		// Properties ---------------------------------------------------------
+
+
+		public long getStatements() {
+			return this.statements;
+		}
+
+		public long getRows() {
+			return this.rows;
+		}
+
+		public long getTime() {
+			return this.time;
+		}
+
+		public int getRepetitions() {
+			return this.repetitions;
+		}
+
+		public String getRepeatedShape() {
+			return this.repeatedShape;
+		}
+
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * UserIdentityMigrator.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.persistence.Query;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import acme.client.data.accounts.UserAccount;
+import acme.internals.components.exceptions.PassThroughException;
+import lombok.CustomLog;
+
+@Component
+@Order(1)
+@CustomLog
+public class UserIdentityMigrator implements CommandLineRunner {
+
+	// Constructors -----------------------------------------------------------
+
+	protected UserIdentityMigrator() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	@Autowired
+	private DatabaseManager		manager;
+
+	private static final int			BATCH_SIZE		= 100;
+
+	// HINT: the columns and indexes that store the default attributes of user identities; they
+	// HINT+ are added to the databases that were created by former versions of the framework.
+
+	private static final List<String>	SCHEMA_SCRIPT	= List.of( //
+		"alter table user_account add column identity_name varchar(255), add column identity_surname varchar(255), add column identity_email varchar(255);", //
+		"create index idx_user_account_identity_surname_name on user_account (identity_surname, identity_name);", //
+		"create index idx_user_account_identity_email on user_account (identity_email);");
+
+	// CommandLineRunner interface --------------------------------------------
+
+
+	@Override
+	public void run(final String... arguments) {
+		// HINT: the schema must be upgraded before anything else is run, since every query on
+		// HINT+ user accounts, including the ones to sign in, reads the identity columns.
+
+		this.upgradeSchema();
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public boolean upgradeSchema() {
+		boolean result;
+
+		// HINT: the columns are added only if the user-account table exists, which is not the
+		// HINT+ case before the database is populated, and they do not exist yet.
+
+		result = this.requiresUpgrade();
+		if (result) {
+			UserIdentityMigrator.logger.info("Adding the user identity columns to table 'user_account'.");
+			this.manager.executeScript(UserIdentityMigrator.SCHEMA_SCRIPT);
+		}
+
+		return result;
+	}
+
+	// HINT: former versions of the framework serialised the whole user identity as a blob.
+	// HINT+ This method copies the default attributes of such identities into their columns,
+	// HINT+ which also clears the blob unless the identity class was redefined.  Accounts are
+	// HINT+ migrated in batches, each of which is committed in a transaction of its own.
+
+	public int migrate() {
+		int result;
+		List<UserAccount> batch;
+		int lastId;
+
+		this.upgradeSchema();
+
+		result = 0;
+		lastId = 0;
+		do {
+			batch = this.migrateBatch(lastId);
+			result += batch.size();
+			if (!batch.isEmpty())
+				lastId = batch.get(batch.size() - 1).getId();
+		} while (batch.size() == UserIdentityMigrator.BATCH_SIZE);
+
+		UserIdentityMigrator.logger.info("Migrated {} serialised user identities.", result);
+
+		return result;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected boolean requiresUpgrade() {
+		boolean result;
+
+		try {
+			this.manager.startTransaction();
+			result = this.manager.getSession().doReturningWork(connection -> {
+				boolean tableExists, columnExists;
+
+				try (Statement statement = connection.createStatement(); //
+					ResultSet resultSet = statement.executeQuery("select count(*), sum(column_name = 'identity_name') from information_schema.columns where table_schema = database() and table_name = 'user_account'")) {
+					resultSet.next();
+					tableExists = resultSet.getInt(1) != 0;
+					columnExists = resultSet.getInt(2) != 0;
+				}
+
+				return tableExists && !columnExists;
+			});
+			this.manager.commitTransaction();
+		} catch (final Throwable oops) {
+			if (this.manager.isTransactionActive())
+				this.manager.rollbackTransaction();
+			throw new PassThroughException(oops);
+		}
+
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected List<UserAccount> migrateBatch(final int lastId) {
+		assert lastId >= 0;
+
+		List<UserAccount> result;
+		Query query;
+
+		try {
+			this.manager.startTransaction();
+			query = this.manager.createQuery("select ua from UserAccount ua where ua.id > :lastId and ua.extendedIdentity is not null and ua.indexedIdentity.name is null order by ua.id");
+			query.setParameter("lastId", lastId);
+			query.setMaxResults(UserIdentityMigrator.BATCH_SIZE);
+			result = query.getResultList();
+			for (final UserAccount userAccount : result) {
+				UserIdentityMigrator.logger.debug("Migrating identity of user account '{}'.", userAccount.getUsername());
+				// HINT: composing the identity is enough; the next flush stores it in its columns.
+				userAccount.getIdentity();
+			}
+			this.manager.commitTransaction();
+		} catch (final Throwable oops) {
+			if (this.manager.isTransactionActive())
+				this.manager.rollbackTransaction();
+			throw new PassThroughException(oops);
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * ExecutionMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.execution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import acme.client.helpers.StringHelper;
+import acme.internals.components.metrics.AbstractMetrics;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=execution", description = "Request execution metrics")
+public class ExecutionMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected ExecutionMetrics() {
+		this.model = "container";
+		this.active = new AtomicLong();
+		this.queued = new AtomicLong();
+		this.maxActive = new AtomicLong();
+		this.maxQueued = new AtomicLong();
+		this.completed = new LongAdder();
+		this.rejected = new LongAdder();
+		this.queueTime = new LongAdder();
+		this.maxQueueTime = new AtomicLong();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private String				model;
+	private int					maxConcurrency;
+	private int					queueSize;
+	private final AtomicLong	active;
+	private final AtomicLong	queued;
+	private final AtomicLong	maxActive;
+	private final AtomicLong	maxQueued;
+	private final LongAdder		completed;
+	private final LongAdder		rejected;
+	private final LongAdder		queueTime;
+	private final AtomicLong	maxQueueTime;
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "execution";
+	}
+
+	@ManagedAttribute(description = "Execution model used to serve requests")
+	public String getModel() {
+		return this.model;
+	}
+
+	@ManagedAttribute(description = "Maximum number of requests served concurrently")
+	public int getMaxConcurrency() {
+		return this.maxConcurrency;
+	}
+
+	@ManagedAttribute(description = "Maximum number of requests waiting to be served")
+	public int getQueueSize() {
+		return this.queueSize;
+	}
+
+	@ManagedAttribute(description = "Number of requests that are being served")
+	public long getActive() {
+		return this.active.get();
+	}
+
+	@ManagedAttribute(description = "Number of requests that are waiting to be served")
+	public long getQueued() {
+		return this.queued.get();
+	}
+
+	@ManagedAttribute(description = "Maximum number of requests that were served concurrently")
+	public long getMaxActive() {
+		return this.maxActive.get();
+	}
+
+	@ManagedAttribute(description = "Maximum number of requests that waited to be served")
+	public long getMaxQueued() {
+		return this.maxQueued.get();
+	}
+
+	@ManagedAttribute(description = "Number of requests served")
+	public long getCompleted() {
+		return this.completed.sum();
+	}
+
+	@ManagedAttribute(description = "Number of requests rejected because the queue was full")
+	public long getRejected() {
+		return this.rejected.sum();
+	}
+
+	@ManagedAttribute(description = "Average time a request waited to be served in milliseconds")
+	public double getAverageQueueTime() {
+		double result;
+
+		result = AbstractMetrics.toMillis(AbstractMetrics.computeAverage(this.queueTime.sum(), this.getCompleted()));
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Maximum time a request waited to be served in milliseconds")
+	public double getMaxQueueTime() {
+		return AbstractMetrics.toMillis(this.maxQueueTime.get());
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void recordConfiguration(final String model, final int maxConcurrency, final int queueSize) {
+		assert !StringHelper.isBlank(model);
+		assert maxConcurrency >= 0;
+		assert queueSize >= 0;
+
+		this.model = model;
+		this.maxConcurrency = maxConcurrency;
+		this.queueSize = queueSize;
+	}
+
+	public void recordQueued() {
+		long current;
+
+		current = this.queued.incrementAndGet();
+		this.maxQueued.accumulateAndGet(current, Math::max);
+	}
+
+	public void recordStarted(final long nanos) {
+		assert nanos >= 0;
+
+		long current;
+
+		this.queued.decrementAndGet();
+		current = this.active.incrementAndGet();
+		this.maxActive.accumulateAndGet(current, Math::max);
+		this.queueTime.add(nanos);
+		this.maxQueueTime.accumulateAndGet(nanos, Math::max);
+	}
+
+	public void recordCompleted() {
+		this.active.decrementAndGet();
+		this.completed.increment();
+	}
+
+	public void recordDropped() {
+		this.queued.decrementAndGet();
+	}
+
+	public void recordRejected() {
+		this.rejected.increment();
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("model", this.getModel());
+		result.put("maxConcurrency", this.getMaxConcurrency());
+		result.put("queueSize", this.getQueueSize());
+		result.put("active", this.getActive());
+		result.put("queued", this.getQueued());
+		result.put("maxActive", this.getMaxActive());
+		result.put("maxQueued", this.getMaxQueued());
+		result.put("completed", this.getCompleted());
+		result.put("rejected", this.getRejected());
+		result.put("averageQueueTime", this.getAverageQueueTime());
+		result.put("maxQueueTime", this.getMaxQueueTime());
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		// HINT: the number of active and queued requests are gauges, so they are not reset.
+		this.maxActive.set(this.active.get());
+		this.maxQueued.set(this.queued.get());
+		this.completed.reset();
+		this.rejected.reset();
+		this.queueTime.reset();
+		this.maxQueueTime.set(0);
+	}
+
+}
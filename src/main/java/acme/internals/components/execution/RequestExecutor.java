@@ -0,0 +1,178 @@
+/*
+ * RequestExecutor.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.execution;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import acme.client.helpers.StringHelper;
+import lombok.CustomLog;
+
+@CustomLog
+public class RequestExecutor implements Executor {
+
+	// HINT: this executor serves the requests that the servlet container accepts.  It admits at
+	// HINT+ most "maxConcurrency" requests running plus "queueSize" requests waiting; further
+	// HINT+ requests are rejected immediately, which makes the container close the connection
+	// HINT+ instead of piling requests up.  Requests run on a bounded pool of platform threads
+	// HINT+ or on virtual threads, if the runtime supports them; in the latter case, a semaphore
+	// HINT+ bounds how many of them run concurrently.
+
+	// Constructors -----------------------------------------------------------
+
+	public RequestExecutor(final String model, final int maxConcurrency, final int queueSize, final ExecutionMetrics metrics) {
+		assert StringHelper.anyOf(model, "platform|virtual");
+		assert maxConcurrency > 0;
+		assert queueSize >= 0;
+		assert metrics != null;
+
+		ExecutorService virtualExecutor;
+
+		virtualExecutor = model.equals("virtual") ? RequestExecutor.createVirtualExecutor() : null;
+		if (virtualExecutor != null) {
+			this.model = "virtual";
+			this.delegate = virtualExecutor;
+			this.permits = new Semaphore(maxConcurrency, true);
+		} else {
+			this.model = "platform";
+			this.delegate = RequestExecutor.createPlatformExecutor(maxConcurrency);
+			this.permits = null;
+		}
+		this.maxConcurrency = maxConcurrency;
+		this.queueSize = queueSize;
+		this.admitted = new AtomicInteger();
+		this.metrics = metrics;
+		this.metrics.recordConfiguration(this.model, maxConcurrency, queueSize);
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final String			model;
+	private final ExecutorService	delegate;
+	private final Semaphore			permits;
+	private final int				maxConcurrency;
+	private final int				queueSize;
+	private final AtomicInteger		admitted;
+	private final ExecutionMetrics	metrics;
+
+	// Properties -------------------------------------------------------------
+
+
+	public String getModel() {
+		return this.model;
+	}
+
+	// Executor interface -----------------------------------------------------
+
+	@Override
+	public void execute(final Runnable task) {
+		assert task != null;
+
+		long enqueueMoment;
+
+		if (this.admitted.incrementAndGet() > this.maxConcurrency + this.queueSize) {
+			this.admitted.decrementAndGet();
+			this.metrics.recordRejected();
+			throw new RejectedExecutionException("The request queue is full.");
+		} else {
+			this.metrics.recordQueued();
+			enqueueMoment = System.nanoTime();
+			try {
+				this.delegate.execute(() -> this.run(task, enqueueMoment));
+			} catch (final RejectedExecutionException oops) {
+				this.admitted.decrementAndGet();
+				this.metrics.recordDropped();
+				this.metrics.recordRejected();
+				throw oops;
+			}
+		}
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void shutdown() {
+		this.delegate.shutdown();
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected void run(final Runnable task, final long enqueueMoment) {
+		assert task != null;
+
+		if (this.permits != null)
+			this.permits.acquireUninterruptibly();
+		try {
+			this.metrics.recordStarted(System.nanoTime() - enqueueMoment);
+			try {
+				task.run();
+			} finally {
+				this.metrics.recordCompleted();
+			}
+		} finally {
+			if (this.permits != null)
+				this.permits.release();
+			this.admitted.decrementAndGet();
+		}
+	}
+
+	protected static ExecutorService createPlatformExecutor(final int maxConcurrency) {
+		assert maxConcurrency > 0;
+
+		ThreadPoolExecutor result;
+		ThreadFactory factory;
+		AtomicInteger counter;
+
+		// HINT: the queue of the pool is not bounded since admission is controlled by the
+		// HINT+ executor itself, which never lets more requests in than it can hold.
+
+		counter = new AtomicInteger();
+		factory = runnable -> {
+			Thread thread;
+
+			thread = new Thread(runnable, String.format("acme-request-%d", counter.incrementAndGet()));
+			thread.setDaemon(true);
+
+			return thread;
+		};
+		result = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+		result.allowCoreThreadTimeOut(true);
+
+		return result;
+	}
+
+	protected static ExecutorService createVirtualExecutor() {
+		ExecutorService result;
+
+		// HINT: virtual threads are looked up reflectively, since they are a preview feature in
+		// HINT+ some of the runtimes on which the framework must compile and run.
+
+		try {
+			result = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final Throwable oops) {
+			RequestExecutor.logger.warn("Virtual threads are not supported by this runtime; a pool of platform threads shall be used instead.");
+			result = null;
+		}
+
+		return result;
+	}
+
+}
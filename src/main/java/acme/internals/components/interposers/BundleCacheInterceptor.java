@@ -0,0 +1,47 @@
+/*
+ * BundleCacheInterceptor.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.interposers;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+public class BundleCacheInterceptor implements HandlerInterceptor {
+
+	// Internal state ---------------------------------------------------------
+
+	// HINT: bundles have a fingerprint in their names, so they never change and can be cached
+	// HINT+ for a year without revalidation.  Spring's CacheControl cannot express "immutable",
+	// HINT+ so the header is set here before the resource handler serves the bundle.
+
+	private static final String CACHE_CONTROL = String.format("public, max-age=%d, immutable", TimeUnit.DAYS.toSeconds(365));
+
+	// HandlerInterceptor interface -------------------------------------------
+
+
+	@Override
+	public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+		assert request != null;
+		assert response != null;
+		assert handler != null;
+
+		response.setHeader(HttpHeaders.CACHE_CONTROL, BundleCacheInterceptor.CACHE_CONTROL);
+
+		return true;
+	}
+
+}
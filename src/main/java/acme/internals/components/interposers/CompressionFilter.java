@@ -0,0 +1,473 @@
+/*
+ * CompressionFilter.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.interposers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import acme.client.helpers.StringHelper;
+
+public class CompressionFilter extends OncePerRequestFilter {
+
+	// HINT: this filter must wrap FormatterFilter, so that it compresses the formatted output.
+	// HINT+ It keeps at most minimumSize bytes in memory while it decides whether a response
+	// HINT+ is worth compressing; from then on, the response is compressed as it is written.
+	// HINT+ If the request is processed asynchronously, the response is finished when the
+	// HINT+ asynchronous processing completes, and non-blocking writes are delegated to the
+	// HINT+ stream of the wrapped response.
+
+	// Constructors -----------------------------------------------------------
+
+	public CompressionFilter(final Collection<String> contentTypes, final int minimumSize, final CompressionMetrics metrics) {
+		assert !StringHelper.someBlank(contentTypes);
+		assert minimumSize >= 0;
+		assert metrics != null;
+
+		this.contentTypes = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+		this.contentTypes.addAll(contentTypes);
+		this.minimumSize = minimumSize;
+		this.metrics = metrics;
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final Set<String>			contentTypes;
+	private final int					minimumSize;
+	private final CompressionMetrics	metrics;
+
+	// OncePerRequestFilter interface -----------------------------------------
+
+
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
+		assert request != null;
+		assert response != null;
+		assert filterChain != null;
+
+		String encoding;
+		CompressingResponseWrapper wrapper;
+
+		encoding = this.negotiateEncoding(request);
+		if (encoding == null || request.getHeader(HttpHeaders.RANGE) != null)
+			filterChain.doFilter(request, response);
+		else {
+			// HINT: the response is finished even if the chain fails, so that the bytes that are
+			// HINT+ buffered or pending in the compressor are not lost.
+			wrapper = new CompressingResponseWrapper(response, encoding);
+			try {
+				filterChain.doFilter(request, wrapper);
+			} finally {
+				if (request.isAsyncStarted())
+					request.getAsyncContext().addListener(new FinishingListener(wrapper));
+				else
+					wrapper.finish();
+			}
+		}
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected String negotiateEncoding(final HttpServletRequest request) {
+		assert request != null;
+
+		String result;
+		String header;
+		boolean gzip, deflate;
+
+		header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		gzip = false;
+		deflate = false;
+		if (header != null)
+			for (final String item : header.split(",")) {
+				String[] parts;
+				String coding;
+				boolean acceptable;
+
+				parts = item.split(";");
+				coding = parts[0].strip().toLowerCase(Locale.ROOT);
+				acceptable = parts.length < 2 || !parts[1].strip().matches("q\\s*=\\s*0(\\.0*)?");
+				gzip = gzip || acceptable && coding.equals("gzip");
+				deflate = deflate || acceptable && coding.equals("deflate");
+			}
+
+		if (gzip)
+			result = "gzip";
+		else if (deflate)
+			result = "deflate";
+		else
+			result = null;
+
+		return result;
+	}
+
+	protected boolean isCompressible(final HttpServletResponse response) {
+		assert response != null;
+
+		boolean result;
+		int status;
+		String contentType;
+
+		status = response.getStatus();
+		contentType = response.getContentType();
+		result = status >= 200 && status != 204 && status != 206 && status != 304 && //
+			!response.containsHeader(HttpHeaders.CONTENT_ENCODING) && //
+			!StringHelper.isBlank(contentType) && //
+			this.contentTypes.contains(contentType.split(";")[0].strip());
+
+		return result;
+	}
+
+	// Inner classes ----------------------------------------------------------
+
+
+	protected class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final String			encoding;
+		private CompressingOutputStream	stream;
+		private PrintWriter				writer;
+		private long					contentLength;
+
+
+		public CompressingResponseWrapper(final HttpServletResponse response, final String encoding) {
+			super(response);
+
+			assert !StringHelper.isBlank(encoding);
+
+			this.encoding = encoding;
+			this.stream = null;
+			this.writer = null;
+			this.contentLength = -1;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			if (this.writer != null)
+				throw new IllegalStateException("getWriter() has already been called on this response.");
+
+			if (this.stream == null)
+				this.stream = new CompressingOutputStream(this);
+
+			return this.stream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				if (this.stream != null)
+					throw new IllegalStateException("getOutputStream() has already been called on this response.");
+				this.stream = new CompressingOutputStream(this);
+				this.writer = new PrintWriter(new OutputStreamWriter(this.stream, this.getCharacterEncoding()));
+			}
+
+			return this.writer;
+		}
+
+		// HINT: the content length is not known until it is decided whether the response is compressed.
+
+		@Override
+		public void setContentLength(final int length) {
+			this.contentLength = length;
+		}
+
+		@Override
+		public void setContentLengthLong(final long length) {
+			this.contentLength = length;
+		}
+
+		@Override
+		public void setHeader(final String name, final String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+				this.contentLength = value == null ? -1 : Long.parseLong(value);
+			else
+				super.setHeader(name, value);
+		}
+
+		@Override
+		public void addHeader(final String name, final String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+				this.contentLength = value == null ? -1 : Long.parseLong(value);
+			else
+				super.addHeader(name, value);
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.writer != null)
+				this.writer.flush();
+			if (this.stream == null || this.stream.isDecided())
+				super.flushBuffer();
+			else
+				this.stream.flush();
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (this.stream != null)
+				this.stream.resetBuffer();
+			super.resetBuffer();
+		}
+
+		@Override
+		public void reset() {
+			if (this.stream != null)
+				this.stream.resetBuffer();
+			this.contentLength = -1;
+			super.reset();
+		}
+
+		public void finish() throws IOException {
+			if (this.writer != null)
+				this.writer.close();
+			else if (this.stream != null)
+				this.stream.close();
+			else if (this.contentLength >= 0)
+				super.setContentLengthLong(this.contentLength);
+		}
+
+		protected HttpServletResponse getTarget() {
+			return (HttpServletResponse) this.getResponse();
+		}
+
+	}
+
+	protected class CompressingOutputStream extends ServletOutputStream {
+
+		private final CompressingResponseWrapper	wrapper;
+		private ByteArrayOutputStream				buffer;
+		private OutputStream						target;
+		private CountingOutputStream				counter;
+		private DeflaterOutputStream				compressor;
+		private long								bytesIn;
+		private boolean								closed;
+
+
+		public CompressingOutputStream(final CompressingResponseWrapper wrapper) {
+			assert wrapper != null;
+
+			this.wrapper = wrapper;
+			this.buffer = new ByteArrayOutputStream(CompressionFilter.this.minimumSize);
+			this.target = null;
+			this.counter = null;
+			this.compressor = null;
+			this.bytesIn = 0;
+			this.closed = false;
+		}
+
+		public boolean isDecided() {
+			return this.target != null;
+		}
+
+		@Override
+		public void write(final int datum) throws IOException {
+			this.write(new byte[] {
+				(byte) datum
+			}, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] data, final int offset, final int length) throws IOException {
+			assert data != null;
+
+			if (this.closed)
+				throw new IOException("The response has already been closed.");
+
+			this.bytesIn += length;
+			if (this.target != null)
+				this.target.write(data, offset, length);
+			else {
+				this.buffer.write(data, offset, length);
+				if (this.buffer.size() >= CompressionFilter.this.minimumSize)
+					this.decide(true);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// HINT: flushing is deferred until it is decided whether the response is compressed,
+			// HINT+ which only requires buffering a few bytes.
+			if (this.target != null)
+				this.target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				if (this.target == null)
+					this.decide(false);
+				if (this.compressor == null)
+					CompressionFilter.this.metrics.recordUncompressed();
+				else {
+					this.compressor.finish();
+					CompressionFilter.this.metrics.recordCompressed(this.bytesIn, this.counter.getCount());
+				}
+				this.target.flush();
+				this.closed = true;
+			}
+		}
+
+		public void resetBuffer() {
+			if (this.compressor != null)
+				throw new IllegalStateException("Cannot reset a response that is already being compressed.");
+			if (this.buffer != null)
+				this.buffer.reset();
+			this.bytesIn = 0;
+		}
+
+		@Override
+		public boolean isReady() {
+			boolean result;
+
+			try {
+				result = this.wrapper.getTarget().getOutputStream().isReady();
+			} catch (final IOException oops) {
+				result = false;
+			}
+
+			return result;
+		}
+
+		@Override
+		public void setWriteListener(final WriteListener listener) {
+			assert listener != null;
+
+			try {
+				this.wrapper.getTarget().getOutputStream().setWriteListener(listener);
+			} catch (final IOException oops) {
+				throw new IllegalStateException(oops);
+			}
+		}
+
+		protected void decide(final boolean large) throws IOException {
+			assert this.target == null;
+
+			HttpServletResponse response;
+			boolean compressible;
+
+			// HINT: the response varies on the accepted encodings whenever its content type is
+			// HINT+ compressible, no matter its size, since the same resource may be compressed
+			// HINT+ once it grows.
+
+			response = this.wrapper.getTarget();
+			compressible = CompressionFilter.this.isCompressible(response);
+			if (compressible)
+				response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			if (large && compressible) {
+				response.setHeader(HttpHeaders.CONTENT_ENCODING, this.wrapper.encoding);
+				this.counter = new CountingOutputStream(response.getOutputStream());
+				if (this.wrapper.encoding.equals("gzip"))
+					this.compressor = new GZIPOutputStream(this.counter, 8192, true);
+				else
+					this.compressor = new DeflaterOutputStream(this.counter, true);
+				this.target = this.compressor;
+			} else {
+				if (this.wrapper.contentLength >= 0)
+					response.setContentLengthLong(this.wrapper.contentLength);
+				this.target = response.getOutputStream();
+			}
+
+			this.buffer.writeTo(this.target);
+			this.buffer = null;
+		}
+
+	}
+
+	protected static class FinishingListener implements AsyncListener {
+
+		private final CompressingResponseWrapper wrapper;
+
+
+		public FinishingListener(final CompressingResponseWrapper wrapper) {
+			assert wrapper != null;
+
+			this.wrapper = wrapper;
+		}
+
+		@Override
+		public void onComplete(final AsyncEvent event) throws IOException {
+			this.wrapper.finish();
+		}
+
+		@Override
+		public void onTimeout(final AsyncEvent event) {
+			// HINT: the processing completes after a time out, so the response is finished then.
+		}
+
+		@Override
+		public void onError(final AsyncEvent event) {
+			// HINT: the processing completes after an error, so the response is finished then.
+		}
+
+		@Override
+		public void onStartAsync(final AsyncEvent event) {
+			// HINT: the listeners are dropped when the processing is restarted, so it registers again.
+			event.getAsyncContext().addListener(this);
+		}
+
+	}
+
+	protected static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+
+		public CountingOutputStream(final OutputStream target) {
+			super(target);
+
+			assert target != null;
+
+			this.count = 0;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		@Override
+		public void write(final int datum) throws IOException {
+			this.out.write(datum);
+			this.count++;
+		}
+
+		@Override
+		public void write(final byte[] data, final int offset, final int length) throws IOException {
+			this.out.write(data, offset, length);
+			this.count += length;
+		}
+
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * CompressionMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.interposers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import acme.internals.components.metrics.AbstractMetrics;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=compression", description = "Response compression metrics")
+public class CompressionMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected CompressionMetrics() {
+		this.responsesCompressed = new LongAdder();
+		this.responsesUncompressed = new LongAdder();
+		this.bytesIn = new LongAdder();
+		this.bytesOut = new LongAdder();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final LongAdder	responsesCompressed;
+	private final LongAdder	responsesUncompressed;
+	private final LongAdder	bytesIn;
+	private final LongAdder	bytesOut;
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "compression";
+	}
+
+	@ManagedAttribute(description = "Number of responses that were compressed")
+	public long getResponsesCompressed() {
+		return this.responsesCompressed.sum();
+	}
+
+	@ManagedAttribute(description = "Number of responses that could have been compressed, but were too small or had another content type")
+	public long getResponsesUncompressed() {
+		return this.responsesUncompressed.sum();
+	}
+
+	@ManagedAttribute(description = "Number of bytes in the compressed responses before compressing them")
+	public long getBytesIn() {
+		return this.bytesIn.sum();
+	}
+
+	@ManagedAttribute(description = "Number of bytes in the compressed responses after compressing them")
+	public long getBytesOut() {
+		return this.bytesOut.sum();
+	}
+
+	@ManagedAttribute(description = "Number of bytes saved by compressing responses")
+	public long getBytesSaved() {
+		return this.getBytesIn() - this.getBytesOut();
+	}
+
+	@ManagedAttribute(description = "Ratio of compressed to uncompressed bytes")
+	public double getCompressionRatio() {
+		return AbstractMetrics.computeAverage(this.getBytesOut(), this.getBytesIn());
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void recordCompressed(final long bytesIn, final long bytesOut) {
+		assert bytesIn >= 0;
+		assert bytesOut >= 0;
+
+		this.responsesCompressed.increment();
+		this.bytesIn.add(bytesIn);
+		this.bytesOut.add(bytesOut);
+	}
+
+	public void recordUncompressed() {
+		this.responsesUncompressed.increment();
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("responsesCompressed", this.getResponsesCompressed());
+		result.put("responsesUncompressed", this.getResponsesUncompressed());
+		result.put("bytesIn", this.getBytesIn());
+		result.put("bytesOut", this.getBytesOut());
+		result.put("bytesSaved", this.getBytesSaved());
+		result.put("compressionRatio", this.getCompressionRatio());
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		this.responsesCompressed.reset();
+		this.responsesUncompressed.reset();
+		this.bytesIn.reset();
+		this.bytesOut.reset();
+	}
+
+}
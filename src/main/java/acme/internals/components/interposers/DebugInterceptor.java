@@ -18,9 +18,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.util.WebUtils;
 
-import acme.client.helpers.StringHelper;
+import acme.internals.helpers.DebugHelper;
 import acme.internals.helpers.ServletHelper;
 
 public class DebugInterceptor implements HandlerInterceptor {
@@ -36,19 +35,19 @@ public class DebugInterceptor implements HandlerInterceptor {
 		String flag;
 		Cookie cookie;
 
-		flag = request.getParameter("debug");
-		if (flag == null) {
-			cookie = WebUtils.getCookie(request, "debug");
-			flag = cookie != null ? cookie.getValue() : "true";
-		}
-		flag = StringHelper.anyOf(flag, "true|false") ? flag : "true";
+		// HINT: the debug subsystem is not available on the production platform, so there is
+		// HINT+ no point in setting its cookie there.
+
+		if (DebugHelper.isAvailable()) {
+			flag = DebugHelper.computeFlag(request);
 
-		// TODO: how can the "sameSite" property be set to "Strict"?
-		cookie = new Cookie("debug", flag);
-		cookie.setPath(ServletHelper.getRequestContextPath(request));
-		cookie.setMaxAge(3600);
+			// TODO: how can the "sameSite" property be set to "Strict"?
+			cookie = new Cookie("debug", flag);
+			cookie.setPath(ServletHelper.getRequestContextPath(request));
+			cookie.setMaxAge(3600);
 
-		response.addCookie(cookie);
+			response.addCookie(cookie);
+		}
 
 		return true;
 	}
@@ -28,6 +28,20 @@ import acme.internals.helpers.ServletHelper;
 
 public class FormatterFilter extends OncePerRequestFilter {
 
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		assert request != null;
+
+		boolean result;
+
+		// HINT: JSON responses are streamed as they are written, so there is no point in
+		// HINT+ buffering them.
+
+		result = ServletHelper.isJsonRequested(request);
+
+		return result;
+	}
+
 	@Override
 	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
 		assert request != null;
@@ -41,12 +55,15 @@ public class FormatterFilter extends OncePerRequestFilter {
 
 		wrapper = new ContentCachingResponseWrapper(response);
 		filterChain.doFilter(request, wrapper);
-		input = wrapper.getContentAsByteArray();
-		text = new String(input);
 
-		if (!ServletHelper.hasResponseHtml(wrapper))
-			output = input;
+		// HINT: responses other than HTML pages are copied as they are, without copying their
+		// HINT+ buffered contents yet another time.
+
+		if (wrapper.getContentSize() == 0 || !ServletHelper.hasResponseHtml(wrapper))
+			wrapper.copyBodyToResponse();
 		else {
+			input = wrapper.getContentAsByteArray();
+			text = new String(input);
 			document = Jsoup.parse(text);
 			assert document != null;
 			document.outputSettings() //
@@ -54,9 +71,8 @@ public class FormatterFilter extends OncePerRequestFilter {
 				.indentAmount(4) //
 				.prettyPrint(true);
 			output = document.html().getBytes();
+			response.getOutputStream().write(output);
 		}
-
-		response.getOutputStream().write(output);
 	}
 
 }
@@ -0,0 +1,57 @@
+/*
+ * AbstractMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public abstract class AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected AbstractMetrics() {
+	}
+
+	// Properties -------------------------------------------------------------
+
+	// HINT: the name is used as the key under which the snapshot of these metrics is
+	// HINT+ published by the metrics endpoint, so it must be unique.
+	public abstract String getName();
+
+	// Business methods -------------------------------------------------------
+
+	public abstract Map<String, Object> computeSnapshot();
+
+	public abstract void reset();
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static double toMillis(final double nanos) {
+		double result;
+
+		result = nanos / TimeUnit.MILLISECONDS.toNanos(1);
+
+		return result;
+	}
+
+	protected static double computeAverage(final long total, final long count) {
+		assert count >= 0;
+
+		double result;
+
+		result = count == 0 ? 0.0 : (double) total / count;
+
+		return result;
+	}
+
+}
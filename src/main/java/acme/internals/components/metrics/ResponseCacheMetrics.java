@@ -0,0 +1,99 @@
+/*
+ * ResponseCacheMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=response-cache", description = "Conditional request metrics")
+public class ResponseCacheMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected ResponseCacheMetrics() {
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final LongAdder	hits;
+	private final LongAdder	misses;
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "response-cache";
+	}
+
+	@ManagedAttribute(description = "Number of conditional requests answered with 304 Not Modified")
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	@ManagedAttribute(description = "Number of conditional requests that required a full response")
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	@ManagedAttribute(description = "Ratio of conditional requests answered with 304 Not Modified")
+	public double getHitRate() {
+		double result;
+		long hits;
+
+		hits = this.getHits();
+		result = AbstractMetrics.computeAverage(hits, hits + this.getMisses());
+
+		return result;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void recordHit() {
+		this.hits.increment();
+	}
+
+	public void recordMiss() {
+		this.misses.increment();
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("hits", this.getHits());
+		result.put("misses", this.getMisses());
+		result.put("hitRate", this.getHitRate());
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		this.hits.reset();
+		this.misses.reset();
+	}
+
+}
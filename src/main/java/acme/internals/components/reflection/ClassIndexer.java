@@ -0,0 +1,126 @@
+/*
+ * ClassIndexer.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.reflection;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import javax.persistence.Embeddable;
+import javax.persistence.Entity;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Service;
+
+public class ClassIndexer {
+
+	// HINT: this is a build-time tool that is run by Maven right after the classes are
+	// HINT+ compiled.  It reads the class files in the "acme" package of the output directory
+	// HINT+ without loading them and writes an index that maps every indexed annotation onto
+	// HINT+ the concrete classes that are annotated with it, either directly or by means of a
+	// HINT+ meta-annotation.  ReflectionHelper reads the index at run time, so that it does not
+	// HINT+ have to scan the classpath.  Roles are indexed as entities.  The index is used only
+	// HINT+ if every classpath root with classes in the "acme" package has one, so applications
+	// HINT+ must run this tool in their own builds, too; see README.txt.
+
+	// Constructors -----------------------------------------------------------
+
+	protected ClassIndexer() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	public static final String								INDEX_RESOURCE	= "META-INF/acme-index.properties";
+	public static final String								BASE_PACKAGE	= "acme";
+	public static final List<Class<? extends Annotation>>	ANNOTATIONS		= List.of(Entity.class, Embeddable.class, Service.class, Controller.class);
+
+	// Entry point ------------------------------------------------------------
+
+
+	public static void main(final String... args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: ClassIndexer <output>");
+			System.exit(1);
+		}
+
+		Path output;
+
+		output = Path.of(args[0]);
+		ClassIndexer.index(output);
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public static void index(final Path output) throws IOException {
+		assert output != null;
+
+		Map<String, TreeSet<String>> entries;
+		SimpleMetadataReaderFactory factory;
+		List<Path> clazzFiles;
+		Properties index;
+		Path baseDirectory, indexFile;
+
+		entries = new LinkedHashMap<String, TreeSet<String>>();
+		for (final Class<? extends Annotation> annotation : ClassIndexer.ANNOTATIONS)
+			entries.put(annotation.getName(), new TreeSet<String>());
+
+		baseDirectory = output.resolve(ClassIndexer.BASE_PACKAGE);
+		clazzFiles = new ArrayList<Path>();
+		if (Files.isDirectory(baseDirectory))
+			try (Stream<Path> paths = Files.walk(baseDirectory)) {
+				paths.filter(path -> path.toString().endsWith(".class")).forEach(clazzFiles::add);
+			}
+
+		factory = new SimpleMetadataReaderFactory(ClassIndexer.class.getClassLoader());
+		for (final Path clazzFile : clazzFiles) {
+			MetadataReader reader;
+			AnnotationMetadata metadata;
+
+			reader = factory.getMetadataReader(new FileSystemResource(clazzFile));
+			metadata = reader.getAnnotationMetadata();
+			// HINT: these are the same candidates that a classpath scanner would report.
+			if (metadata.isIndependent() && metadata.isConcrete())
+				for (final Map.Entry<String, TreeSet<String>> entry : entries.entrySet())
+					if (metadata.hasAnnotation(entry.getKey()) || metadata.hasMetaAnnotation(entry.getKey()))
+						entry.getValue().add(metadata.getClassName());
+		}
+
+		index = new Properties();
+		for (final Map.Entry<String, TreeSet<String>> entry : entries.entrySet()) {
+			index.setProperty(entry.getKey(), String.join(", ", entry.getValue()));
+			System.out.printf("Indexed %d class(es) annotated with @%s.%n", entry.getValue().size(), entry.getKey());
+		}
+
+		indexFile = output.resolve(ClassIndexer.INDEX_RESOURCE);
+		Files.createDirectories(indexFile.getParent());
+		try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+			index.store(writer, "Generated by ClassIndexer; do not edit");
+		}
+	}
+
+}
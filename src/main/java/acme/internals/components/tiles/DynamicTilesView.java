@@ -14,6 +14,8 @@ package acme.internals.components.tiles;
 
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -29,6 +31,7 @@ import org.apache.tiles.request.Request;
 import org.apache.tiles.request.render.Renderer;
 import org.apache.tiles.request.servlet.ServletRequest;
 import org.apache.tiles.request.servlet.ServletUtil;
+import org.springframework.core.env.Profiles;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -48,14 +51,22 @@ public class DynamicTilesView extends TilesView {
 		this.renderer = null;
 		this.exposeJstlAttributes = true;
 		this.alwaysInclude = false;
+		this.container = null;
+		this.metrics = null;
+		this.productionMode = false;
+		this.definitions = new ConcurrentHashMap<Locale, Definition>();
 	}
 
 	// Internal state ---------------------------------------------------------
 
 
-	private Renderer	renderer;
-	private boolean		exposeJstlAttributes;
-	private boolean		alwaysInclude;
+	private Renderer							renderer;
+	private boolean								exposeJstlAttributes;
+	private boolean								alwaysInclude;
+	private TilesContainer						container;
+	private ViewMetrics							metrics;
+	private boolean								productionMode;
+	private final ConcurrentMap<Locale, Definition>	definitions;	// HINT: locale -> resolved master definition
 
 	// Properties -------------------------------------------------------------
 
@@ -89,6 +100,10 @@ public class DynamicTilesView extends TilesView {
 		return this.alwaysInclude;
 	}
 
+	public boolean isProductionMode() {
+		return this.productionMode;
+	}
+
 	// AbstractUrlBasedView interface -----------------------------------------
 
 	@Override
@@ -105,6 +120,11 @@ public class DynamicTilesView extends TilesView {
 		container = TilesAccess.getContainer(applicationContext);
 		assert container != null;
 		this.renderer = new DynamicDefinitionRenderer(container);
+		this.container = container;
+		this.metrics = this.obtainApplicationContext().getBean(ViewMetrics.class);
+		// HINT: in production mode the definitions are frozen, so the master definition that
+		// HINT+ this view resolves can be cached once per locale.
+		this.productionMode = this.obtainApplicationContext().getEnvironment().acceptsProfiles(Profiles.of("production"));
 	}
 
 	@Override
@@ -143,48 +163,69 @@ public class DynamicTilesView extends TilesView {
 		assert request != null;
 		assert response != null;
 		assert this.renderer != null;
+		assert this.container != null : "There is not a TilesConfigurer in your application context.";
 
+		long startMoment;
 		ServletContext servletContext;
-		ApplicationContext context;
-		TilesContainer container;
 		ApplicationContext applicationContext;
 		Request tilesRequest;
-		String viewName;
-		Attribute body;
+		Locale locale;
 		Definition definition;
 
-		servletContext = this.getServletContext();
-		assert servletContext != null : "There is not a servlet context available.";
-		context = ServletUtil.getApplicationContext(servletContext);
-		container = TilesAccess.getContainer(context);
-		assert container != null : "There is not a TilesConfigurer in your application context.";
-		applicationContext = ServletUtil.getApplicationContext(servletContext);
+		startMoment = System.nanoTime();
+		try {
+			servletContext = this.getServletContext();
+			assert servletContext != null : "There is not a servlet context available.";
+			applicationContext = ServletUtil.getApplicationContext(servletContext);
+
+			this.exposeModelAsRequestAttributes(model, request);
+			if (this.exposeJstlAttributes)
+				JstlUtils.exposeLocalizationContext(new RequestContext(request, servletContext));
+			if (this.alwaysInclude)
+				request.setAttribute(AbstractRequest.FORCE_INCLUDE_ATTRIBUTE_NAME, true);
+			tilesRequest = this.createTilesRequest(applicationContext, request, response, null);
+
+			// HINT: must not expose forward request attributes for servlet servers above 2.5
+			if (!response.isCommitted() && servletContext.getMajorVersion() == 2 && servletContext.getMinorVersion() < 5)
+				this.exposeForwardRequestAttributes(request);
+
+			if (this.productionMode) {
+				locale = tilesRequest.getRequestLocale();
+				definition = this.definitions.computeIfAbsent(locale, key -> this.resolveDefinition(tilesRequest));
+			} else
+				definition = this.resolveDefinition(tilesRequest);
+
+			this.container.render(definition, tilesRequest);
+		} finally {
+			this.metrics.recordRender(super.getUrl(), System.nanoTime() - startMoment);
+		}
+	}
 
-		this.exposeModelAsRequestAttributes(model, request);
-		if (this.exposeJstlAttributes)
-			JstlUtils.exposeLocalizationContext(new RequestContext(request, this.getServletContext()));
-		if (this.alwaysInclude)
-			request.setAttribute(AbstractRequest.FORCE_INCLUDE_ATTRIBUTE_NAME, true);
-		tilesRequest = this.createTilesRequest(applicationContext, request, response, null);
+	// Ancillary methods ------------------------------------------------------
+
+	protected Definition resolveDefinition(final Request tilesRequest) {
+		assert tilesRequest != null;
+
+		Definition result;
+		Definition master;
+		String viewName;
+		Attribute body;
 
-		JstlUtils.exposeLocalizationContext(new RequestContext(request, servletContext));
-		// HINT: must not expose forward request attributes for servlet servers above 2.5
-		if (!response.isCommitted() && servletContext.getMajorVersion() == 2 && servletContext.getMinorVersion() < 5)
-			this.exposeForwardRequestAttributes(request);
+		// HINT: the master definition is copied before setting its body, since the container
+		// HINT+ may share the same instance amongst every view that is rendered.
 
-		definition = container.getDefinition("/master", tilesRequest);
-		assert definition != null : "Could not locate view '/master'. Very likely the Acme Framework is not properly linked!";
+		master = this.container.getDefinition("/master", tilesRequest);
+		assert master != null : "Could not locate view '/master'. Very likely the Acme Framework is not properly linked!";
 
 		viewName = String.format("/WEB-INF/views/%s.jsp", super.getUrl());
 		body = new Attribute();
 		body.setValue(viewName);
-		definition.putAttribute("body", body);
+		result = new Definition(master);
+		result.putAttribute("body", body);
 
-		container.render(definition, tilesRequest);
+		return result;
 	}
 
-	// Ancillary methods ------------------------------------------------------
-
 	protected Request createTilesRequest(final ApplicationContext applicationContext, final HttpServletRequest request, final HttpServletResponse response, final Locale locale) {
 		assert applicationContext != null;
 		assert request != null;
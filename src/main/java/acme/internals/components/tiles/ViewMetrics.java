@@ -0,0 +1,149 @@
+/*
+ * ViewMetrics.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.tiles;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import acme.client.helpers.StringHelper;
+import acme.internals.components.metrics.AbstractMetrics;
+
+@Component
+@ManagedResource(objectName = "acme:type=Metrics,name=views", description = "View rendering metrics")
+public class ViewMetrics extends AbstractMetrics {
+
+	// Constructors -----------------------------------------------------------
+
+	protected ViewMetrics() {
+		this.statistics = new ConcurrentHashMap<String, Statistics>();
+	}
+
+	// Inner classes ----------------------------------------------------------
+
+
+	protected static class Statistics {
+
+		private final LongAdder		renders			= new LongAdder();
+		private final LongAdder		renderTime		= new LongAdder();
+		private final AtomicLong	maxRenderTime	= new AtomicLong();
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final ConcurrentMap<String, Statistics> statistics; // HINT: view name -> statistics
+
+	// Properties -------------------------------------------------------------
+
+
+	@Override
+	public String getName() {
+		return "views";
+	}
+
+	@ManagedAttribute(description = "Number of views rendered")
+	public long getRenders() {
+		long result;
+
+		result = 0;
+		for (final Statistics entry : this.statistics.values())
+			result += entry.renders.sum();
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Average time to render a view in milliseconds")
+	public double getAverageRenderTime() {
+		double result;
+		long renders, renderTime;
+
+		renders = 0;
+		renderTime = 0;
+		for (final Statistics entry : this.statistics.values()) {
+			renders += entry.renders.sum();
+			renderTime += entry.renderTime.sum();
+		}
+		result = AbstractMetrics.toMillis(AbstractMetrics.computeAverage(renderTime, renders));
+
+		return result;
+	}
+
+	@ManagedAttribute(description = "Maximum time to render a view in milliseconds")
+	public double getMaxRenderTime() {
+		long result;
+
+		result = 0;
+		for (final Statistics entry : this.statistics.values())
+			result = Math.max(result, entry.maxRenderTime.get());
+
+		return AbstractMetrics.toMillis(result);
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public void recordRender(final String viewName, final long nanos) {
+		assert !StringHelper.isBlank(viewName);
+		assert nanos >= 0;
+
+		Statistics entry;
+
+		entry = this.statistics.computeIfAbsent(viewName, key -> new Statistics());
+		entry.renders.increment();
+		entry.renderTime.add(nanos);
+		entry.maxRenderTime.accumulateAndGet(nanos, Math::max);
+	}
+
+	@Override
+	public Map<String, Object> computeSnapshot() {
+		Map<String, Object> result;
+		Map<String, Object> views;
+
+		views = new TreeMap<String, Object>();
+		this.statistics.forEach((viewName, entry) -> {
+			Map<String, Object> view;
+			long renders;
+
+			renders = entry.renders.sum();
+			view = new LinkedHashMap<String, Object>();
+			view.put("renders", renders);
+			view.put("averageRenderTime", AbstractMetrics.toMillis(AbstractMetrics.computeAverage(entry.renderTime.sum(), renders)));
+			view.put("maxRenderTime", AbstractMetrics.toMillis(entry.maxRenderTime.get()));
+			views.put(viewName, view);
+		});
+
+		result = new LinkedHashMap<String, Object>();
+		result.put("renders", this.getRenders());
+		result.put("averageRenderTime", this.getAverageRenderTime());
+		result.put("maxRenderTime", this.getMaxRenderTime());
+		result.put("views", views);
+
+		return result;
+	}
+
+	@Override
+	@ManagedOperation(description = "Resets the counters")
+	public void reset() {
+		this.statistics.clear();
+	}
+
+}
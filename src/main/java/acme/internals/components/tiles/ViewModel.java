@@ -0,0 +1,122 @@
+/*
+ * ViewModel.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.tiles;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
+
+import acme.client.data.models.Dataset;
+import acme.internals.helpers.ReflectionHelper;
+
+public class ViewModel extends AbstractList<Dataset> implements RandomAccess {
+
+	// HINT: a view model exposes the datasets of a response to the views as they are, so that
+	// HINT+ they can be accessed as "${$data[index][key]}" using the standard list and map
+	// HINT+ resolvers.  The views that are not listings also get the flattened attributes,
+	// HINT+ i.e., "key" or "key[index]", since the form tags and many client views read them;
+	// HINT+ listings read the view model only, so their flattened attributes are not computed
+	// HINT+ unless they are required, e.g., to compute the response payload.
+
+	// Constructors -----------------------------------------------------------
+
+	public ViewModel(final Collection<?> datasets, final boolean indexed, final boolean flattened) {
+		assert datasets != null;
+
+		this.datasets = new ArrayList<Dataset>(datasets.size());
+		for (final Object dataset : datasets) {
+			assert ReflectionHelper.isAssignable(Dataset.class, dataset) : //
+				String.format("Your response data contains datum '%s' of type '%s', but it must be of type '%s'.", dataset, dataset == null ? null : dataset.getClass().getName(), Dataset.class.getName());
+			this.datasets.add((Dataset) dataset);
+		}
+		this.indexed = indexed;
+		this.flattened = flattened;
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final List<Dataset>	datasets;
+	private final boolean		indexed;
+	private final boolean		flattened;
+
+	// Properties -------------------------------------------------------------
+
+
+	public boolean isIndexed() {
+		return this.indexed;
+	}
+
+	public boolean isFlattened() {
+		return this.flattened;
+	}
+
+	// List interface ---------------------------------------------------------
+
+	@Override
+	public Dataset get(final int index) {
+		assert index >= 0 && index < this.datasets.size();
+
+		Dataset result;
+
+		result = this.datasets.get(index);
+
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return this.datasets.size();
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public Map<String, Object> computeAttributes() {
+		Map<String, Object> result;
+		int index;
+
+		result = new LinkedHashMap<String, Object>();
+		index = 0;
+		for (final Dataset dataset : this.datasets) {
+			for (final Entry<String, Object> entry : dataset.entrySet()) {
+				String attribute;
+
+				if (this.indexed)
+					attribute = ViewModel.computeAttributeName(entry.getKey(), index);
+				else
+					attribute = entry.getKey();
+				result.put(attribute, entry.getValue());
+			}
+			index++;
+		}
+
+		return result;
+	}
+
+	public static String computeAttributeName(final String key, final int index) {
+		assert key != null;
+		assert index >= 0;
+
+		String result;
+
+		result = key + "[" + index + "]";
+
+		return result;
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * ConstraintMetadata.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.validation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import acme.client.helpers.StringHelper;
+
+public class ConstraintMetadata {
+
+	// HINT: this class summarises the constraints of a class, as reported by the bean validator,
+	// HINT+ so that validating a handful of properties does not require to inspect them again.
+
+	// Constructors -----------------------------------------------------------
+
+	public ConstraintMetadata(final BeanDescriptor descriptor) {
+		assert descriptor != null;
+
+		Set<String> constrained, cascaded;
+
+		constrained = new LinkedHashSet<String>();
+		cascaded = new LinkedHashSet<String>();
+		for (final PropertyDescriptor property : descriptor.getConstrainedProperties()) {
+			if (property.hasConstraints())
+				constrained.add(property.getPropertyName());
+			if (property.isCascaded())
+				cascaded.add(property.getPropertyName());
+		}
+
+		this.classConstrained = descriptor.hasConstraints();
+		this.constrainedProperties = Collections.unmodifiableSet(constrained);
+		this.cascadedProperties = Collections.unmodifiableSet(cascaded);
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private final boolean		classConstrained;
+	private final Set<String>	constrainedProperties;
+	private final Set<String>	cascadedProperties;
+
+	// Properties -------------------------------------------------------------
+
+
+	public boolean isClassConstrained() {
+		return this.classConstrained;
+	}
+
+	public Set<String> getConstrainedProperties() {
+		return this.constrainedProperties;
+	}
+
+	public Set<String> getCascadedProperties() {
+		return this.cascadedProperties;
+	}
+
+	// Business methods -------------------------------------------------------
+
+	public boolean supportsPropertyValidation(final Collection<String> properties) {
+		assert !StringHelper.someBlank(properties);
+
+		boolean result;
+
+		// HINT: validating a property does not take class-level constraints into account and
+		// HINT+ does not cascade, so the whole object must be validated in such cases.
+
+		result = !this.classConstrained;
+		for (final String property : properties)
+			result = result && !this.cascadedProperties.contains(property);
+
+		return result;
+	}
+
+}
@@ -12,9 +12,39 @@
 
 package acme.internals.configuration;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import acme.client.data.AbstractEntity;
+import acme.client.data.Cached;
+import acme.client.data.accounts.UserAccount;
+import acme.internals.components.database.CacheMetrics;
+import acme.internals.components.database.ConnectionPoolMetrics;
+import acme.internals.components.database.LocalCache;
+import acme.internals.components.database.LocalRegionFactory;
+import acme.internals.components.database.MonitoredDataSource;
+import acme.internals.helpers.ReflectionHelper;
+import lombok.CustomLog;
 
 @Configuration
+@CustomLog
 public class DatabaseConfiguration {
 
 	// Constructor ------------------------------------------------------------
@@ -22,4 +52,119 @@ public class DatabaseConfiguration {
 	protected DatabaseConfiguration() {
 	}
 
+	// Internal state ---------------------------------------------------------
+
+
+	@Autowired
+	private Environment		environment;
+
+	@Autowired
+	private CacheMetrics	cacheMetrics;
+
+	// Beans ------------------------------------------------------------------
+
+
+	@Bean
+	public HibernatePropertiesCustomizer cachePropertiesCustomizer() {
+		HibernatePropertiesCustomizer result;
+		boolean enabled;
+
+		// HINT: Hibernate only caches entity hierarchies as a whole, so the cache is enabled for
+		// HINT+ AbstractEntity and the region factory decides which entity classes are actually
+		// HINT+ cached.  The cache is non-strict: entries are evicted when their entities are
+		// HINT+ updated or removed, and the whole cache is evicted when the database manager
+		// HINT+ writes to the database behind Hibernate's back.
+
+		enabled = this.environment.getRequiredProperty("acme.database.cache-enabled", Boolean.class);
+		result = properties -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+			properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+			if (enabled) {
+				properties.put(AvailableSettings.CACHE_REGION_FACTORY, this.createRegionFactory());
+				properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+				properties.put(String.format("%s.%s", AvailableSettings.CLASS_CACHE_PREFIX, AbstractEntity.class.getName()), "nonstrict-read-write");
+				properties.put(String.format("%s.%s.userRoles", AvailableSettings.COLLECTION_CACHE_PREFIX, UserAccount.class.getName()), "nonstrict-read-write");
+			}
+		};
+
+		return result;
+	}
+
+	// HINT: the post-processor is static so that it is registered before the data source is
+	// HINT+ created; the metrics are looked up lazily for the very same reason.
+
+	@Bean
+	public static BeanPostProcessor dataSourcePostProcessor(final Environment environment, final ObjectProvider<ConnectionPoolMetrics> metricsProvider) {
+		BeanPostProcessor result;
+
+		result = new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+				Object result;
+				ConnectionPoolMetrics metrics;
+				int maxPoolSize;
+				long holdThreshold;
+				boolean statementInspection;
+
+				// HINT: any data source is monitored, e.g., the embedded ones that are used in tests,
+				// HINT+ but the size of the pool is known for Hikari's only.  Statements and result
+				// HINT+ sets are proxied only if they must be inspected, which is never the case on
+				// HINT+ the production platform.
+
+				if (!(bean instanceof DataSource) || bean instanceof MonitoredDataSource)
+					result = bean;
+				else {
+					maxPoolSize = bean instanceof HikariDataSource ? ((HikariDataSource) bean).getMaximumPoolSize() : 0;
+					holdThreshold = environment.getRequiredProperty("acme.database.connection-hold-threshold", Long.class);
+					metrics = metricsProvider.getObject();
+					metrics.recordConfiguration(maxPoolSize, TimeUnit.MILLISECONDS.toNanos(holdThreshold));
+					statementInspection = !environment.acceptsProfiles(Profiles.of("production")) && //
+						environment.getProperty("acme.database.statement-inspection-enabled", Boolean.class, false);
+					result = new MonitoredDataSource((DataSource) bean, metrics, statementInspection);
+					if (maxPoolSize == 0)
+						DatabaseConfiguration.logger.info("Database connections shall be monitored.");
+					else
+						DatabaseConfiguration.logger.info("Database connections shall be monitored; the pool holds at most {} connections.", maxPoolSize);
+				}
+
+				return result;
+			}
+
+		};
+
+		return result;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected LocalRegionFactory createRegionFactory() {
+		LocalRegionFactory result;
+		Map<String, LocalCache> entityCaches;
+		List<String> names;
+		int maxEntries, timeToLive;
+
+		maxEntries = this.environment.getRequiredProperty("acme.database.cache-max-entries", Integer.class);
+		timeToLive = this.environment.getRequiredProperty("acme.database.cache-time-to-live", Integer.class);
+		names = Arrays.asList(this.environment.getProperty("acme.database.cache-entities", String[].class, new String[0]));
+
+		entityCaches = new LinkedHashMap<String, LocalCache>();
+		for (final Class<?> clazz : ReflectionHelper.findEntities()) {
+			Cached annotation;
+			int entryLimit, lifetime;
+
+			annotation = clazz.getAnnotation(Cached.class);
+			if (annotation != null || names.contains(clazz.getName()) || names.contains(clazz.getSimpleName())) {
+				entryLimit = annotation == null || annotation.maxEntries() < 0 ? maxEntries : annotation.maxEntries();
+				lifetime = annotation == null || annotation.timeToLive() < 0 ? timeToLive : annotation.timeToLive();
+				entityCaches.put(clazz.getName(), new LocalCache(clazz.getName(), entryLimit, TimeUnit.SECONDS.toNanos(lifetime)));
+			}
+		}
+		DatabaseConfiguration.logger.info("The second-level cache shall keep {} entity class(es): {}.", entityCaches.size(), entityCaches.keySet());
+
+		result = new LocalRegionFactory(entityCaches, maxEntries, TimeUnit.SECONDS.toNanos(timeToLive), this.cacheMetrics);
+
+		return result;
+	}
+
 }
@@ -12,11 +12,13 @@
 
 package acme.internals.configuration;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
@@ -32,6 +34,8 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import acme.internals.components.extensions.ExtendedSecurityExpressionHandler;
 import acme.internals.components.interposers.AuthenticationFilter;
+import acme.internals.components.interposers.CompressionFilter;
+import acme.internals.components.interposers.CompressionMetrics;
 import acme.internals.components.interposers.CsrfHeaderFilter;
 import acme.internals.components.interposers.FormatterFilter;
 import acme.internals.controllers.RememberMeLogoutHandler;
@@ -56,6 +60,12 @@ public class FilterConfiguration {
 	@Autowired
 	private AuthenticationService	authenticationService;
 
+	@Autowired
+	private CompressionMetrics		compressionMetrics;
+
+	@Autowired
+	private Environment				environment;
+
 	private static String			STRONG_KEY;
 
 	// Beans ------------------------------------------------------------------
@@ -146,6 +156,7 @@ public class FilterConfiguration {
 			AuthenticationManager authenticationManager;
 			AuthenticationFilter signInFilter, signOutFilter;
 			FormatterFilter responseFormatterFilter;
+			CompressionFilter responseCompressionFilter;
 			CsrfHeaderFilter csrfHeaderFilter;
 
 			// HINT: the manager can only be fetched here, not in the securityFilterChain method above :/
@@ -162,6 +173,18 @@ public class FilterConfiguration {
 
 			responseFormatterFilter = new FormatterFilter();
 			security.addFilterAfter(responseFormatterFilter, SwitchUserFilter.class);
+
+			// HINT: the compression filter must run before the formatter filter, so that it wraps
+			// HINT+ the response and compresses the formatted output.
+			if (FilterConfiguration.this.environment.getProperty("acme.compression.enabled", Boolean.class, true)) {
+				List<String> contentTypes;
+				int minimumSize;
+
+				contentTypes = List.of(FilterConfiguration.this.environment.getRequiredProperty("acme.compression.content-types", String[].class));
+				minimumSize = FilterConfiguration.this.environment.getRequiredProperty("acme.compression.minimum-size", Integer.class);
+				responseCompressionFilter = new CompressionFilter(contentTypes, minimumSize, FilterConfiguration.this.compressionMetrics);
+				security.addFilterBefore(responseCompressionFilter, SwitchUserFilter.class);
+			}
 		}
 
 	}
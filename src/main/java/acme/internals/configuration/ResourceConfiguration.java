@@ -0,0 +1,56 @@
+/*
+ * ResourceConfiguration.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import acme.internals.components.assets.AssetBundler;
+import acme.internals.components.interposers.BundleCacheInterceptor;
+
+@Configuration
+public class ResourceConfiguration implements WebMvcConfigurer {
+
+	// Constructor ------------------------------------------------------------
+
+	protected ResourceConfiguration() {
+	}
+
+	// WebMvcConfigurer interface ---------------------------------------------
+
+	@Override
+	public void addResourceHandlers(final ResourceHandlerRegistry registry) {
+		assert registry != null;
+
+		String pattern, location;
+
+		pattern = String.format("/%s/**", AssetBundler.BUNDLE_DIRECTORY);
+		location = String.format("classpath:/META-INF/resources/%s/", AssetBundler.BUNDLE_DIRECTORY);
+		registry.addResourceHandler(pattern).addResourceLocations(location);
+	}
+
+	@Override
+	public void addInterceptors(final InterceptorRegistry registry) {
+		assert registry != null;
+
+		BundleCacheInterceptor bundleInterceptor;
+		String pattern;
+
+		pattern = String.format("/%s/**", AssetBundler.BUNDLE_DIRECTORY);
+		bundleInterceptor = new BundleCacheInterceptor();
+		registry.addInterceptor(bundleInterceptor).addPathPatterns(pattern);
+	}
+
+}
@@ -12,8 +12,11 @@
 
 package acme.internals.configuration;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.view.tiles3.TilesConfigurer;
@@ -29,14 +32,26 @@ public class TilesConfiguration implements WebMvcConfigurer {
 	protected TilesConfiguration() {
 	}
 
+	// Internal state ---------------------------------------------------------
+
+
+	@Autowired
+	private Environment environment;
+
 	// Beans ------------------------------------------------------------------
 
 	@Bean
 	public TilesConfigurer tilesConfigurer() {
 		TilesConfigurer result;
+		boolean productionMode;
+
+		// HINT: the definitions are checked for changes on every request except in production,
+		// HINT+ where they are loaded once and then frozen.
+
+		productionMode = this.environment.acceptsProfiles(Profiles.of("production"));
 
 		result = new TilesConfigurer();
-		result.setCheckRefresh(true);
+		result.setCheckRefresh(!productionMode);
 		result.setDefinitions("classpath:/WEB-INF/views/**/tiles.xml");
 
 		return result;
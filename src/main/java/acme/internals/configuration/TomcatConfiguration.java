@@ -14,14 +14,22 @@ package acme.internals.configuration;
 
 import java.io.File;
 
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.server.ConfigurableWebServerFactory;
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import acme.internals.components.execution.ExecutionMetrics;
+import acme.internals.components.execution.RequestExecutor;
+import lombok.CustomLog;
+
 @Configuration
+@CustomLog
 public class TomcatConfiguration implements WebMvcConfigurer {
 
 	// Constructor ------------------------------------------------------------
@@ -29,8 +37,18 @@ public class TomcatConfiguration implements WebMvcConfigurer {
 	protected TomcatConfiguration() {
 	}
 
+	// Internal state ---------------------------------------------------------
+
+
+	@Autowired
+	private Environment			environment;
+
+	@Autowired
+	private ExecutionMetrics	executionMetrics;
+
 	// Beans ------------------------------------------------------------------
 
+
 	@Bean
 	public WebServerFactoryCustomizer<ConfigurableWebServerFactory> webServerFactoryCustomizer() {
 		WebServerFactoryCustomizer<ConfigurableWebServerFactory> result;
@@ -40,13 +58,47 @@ public class TomcatConfiguration implements WebMvcConfigurer {
 
 			TomcatServletWebServerFactory tomcat;
 			File root;
+			RequestExecutor executor;
 
 			tomcat = (TomcatServletWebServerFactory) factory;
 			root = new File("./target/classes");
 			tomcat.setDocumentRoot(root);
+
+			executor = this.requestExecutor();
+			if (executor != null)
+				tomcat.addProtocolHandlerCustomizers(handler -> {
+					assert handler instanceof AbstractProtocol;
+
+					((AbstractProtocol<?>) handler).setExecutor(executor);
+				});
 		};
 
 		return result;
 	}
 
+	@Bean(destroyMethod = "shutdown")
+	public RequestExecutor requestExecutor() {
+		RequestExecutor result;
+		String model;
+		int maxConcurrency, queueSize;
+
+		// HINT: the "container" model keeps the defaults of the servlet container; the others
+		// HINT+ install a request executor with bounded concurrency and a bounded queue, which
+		// HINT+ should be sized according to the database connection pool.
+
+		model = this.environment.getProperty("acme.execution.model", "container");
+		assert model.equals("container") || model.equals("platform") || model.equals("virtual") : String.format("Unknown execution model '%s'.", model);
+
+		if (model.equals("container"))
+			result = null;
+		else {
+			maxConcurrency = this.environment.getRequiredProperty("acme.execution.max-concurrency", Integer.class);
+			queueSize = this.environment.getRequiredProperty("acme.execution.queue-size", Integer.class);
+			result = new RequestExecutor(model, maxConcurrency, queueSize, this.executionMetrics);
+			TomcatConfiguration.logger.info("Requests shall be served by {} threads, at most {} concurrently and {} queued.", result.getModel(), maxConcurrency, queueSize);
+		}
+
+		return result;
+	}
+
 }
@@ -22,6 +22,7 @@ import acme.Launcher;
 import acme.client.data.accounts.Administrator;
 import acme.client.helpers.Assert;
 import acme.client.helpers.PrincipalHelper;
+import acme.internals.components.database.UserIdentityMigrator;
 import acme.internals.helpers.FactoryHelper;
 
 @Controller
@@ -51,6 +52,30 @@ public class AdministratorController {
 		return result;
 	}
 
+	@GetMapping("/administrator/system/migrate-identities")
+	public ModelAndView migrateIdentities() {
+		Assert.state(PrincipalHelper.get().hasRole(Administrator.class), "default.error.not-authorised");
+
+		ModelAndView result;
+		UserIdentityMigrator migrator;
+
+		try {
+			migrator = FactoryHelper.getBean(UserIdentityMigrator.class);
+			migrator.migrate();
+			result = new ModelAndView();
+			result.setViewName("fragments/welcome");
+			result.addObject("_globalSuccessMessage", "default.global.message.success");
+		} catch (final Throwable oops) {
+			result = new ModelAndView();
+			result.setViewName("master/panic");
+			result.setStatus(HttpStatus.INTERNAL_SERVER_ERROR);
+			result.addObject("_globalErrorMessage", "default.global.message.error");
+			result.addObject("_oops", oops);
+		}
+
+		return result;
+	}
+
 	@GetMapping("/administrator/system/shut-down")
 	public void shutDown() {
 		Assert.state(PrincipalHelper.get().hasRole(Administrator.class), "default.error.not-authorised");
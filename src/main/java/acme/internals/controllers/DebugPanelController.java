@@ -0,0 +1,53 @@
+/*
+ * DebugPanelController.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.controllers;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import acme.client.helpers.Assert;
+import acme.internals.helpers.DebugHelper;
+import acme.internals.helpers.SerialisationHelper;
+import acme.internals.helpers.SerialisationHelper.Format;
+
+@Controller
+public class DebugPanelController {
+
+	// Endpoints --------------------------------------------------------------
+
+	@GetMapping(path = "/any/system/debug-panel", produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String debugPanel(final HttpServletRequest request, @RequestParam final String id, @RequestParam(defaultValue = "false") final boolean full) {
+		assert request != null;
+		assert id != null;
+
+		Assert.state(DebugHelper.isAvailable(), "default.error.not-authorised");
+
+		String result;
+		Map<String, Map<String, Object[]>> panel;
+
+		panel = DebugHelper.computePanel(request, id, full);
+		Assert.state(panel != null, "default.error.not-authorised");
+		result = SerialisationHelper.write(Format.JSON, panel);
+
+		return result;
+	}
+
+}
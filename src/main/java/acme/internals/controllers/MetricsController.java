@@ -0,0 +1,73 @@
+/*
+ * MetricsController.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.controllers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import acme.client.data.accounts.Administrator;
+import acme.client.helpers.Assert;
+import acme.client.helpers.PrincipalHelper;
+import acme.internals.components.metrics.AbstractMetrics;
+import acme.internals.helpers.SerialisationHelper;
+import acme.internals.helpers.SerialisationHelper.Format;
+
+@Controller
+public class MetricsController {
+
+	// Internal state ---------------------------------------------------------
+
+	@Autowired
+	private List<AbstractMetrics> metrics;
+
+	// Endpoints --------------------------------------------------------------
+
+
+	@GetMapping(path = "/administrator/system/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String metrics() {
+		Assert.state(PrincipalHelper.get().hasRole(Administrator.class), "default.error.not-authorised");
+
+		String result;
+		Map<String, Object> snapshot;
+
+		snapshot = new LinkedHashMap<String, Object>();
+		for (final AbstractMetrics source : this.metrics)
+			snapshot.put(source.getName(), source.computeSnapshot());
+		result = SerialisationHelper.write(Format.JSON, snapshot);
+
+		return result;
+	}
+
+	@GetMapping(path = "/administrator/system/reset-metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String resetMetrics() {
+		Assert.state(PrincipalHelper.get().hasRole(Administrator.class), "default.error.not-authorised");
+
+		String result;
+
+		for (final AbstractMetrics source : this.metrics)
+			source.reset();
+		result = this.metrics();
+
+		return result;
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * PayloadController.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.controllers;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import acme.client.helpers.Assert;
+import acme.internals.helpers.PayloadHelper;
+
+@Controller
+public class PayloadController {
+
+	// Endpoints --------------------------------------------------------------
+
+	@GetMapping(path = "/any/system/payload", produces = MediaType.TEXT_PLAIN_VALUE)
+	@ResponseBody
+	public String payload(final HttpServletRequest request, @RequestParam final String id) {
+		assert request != null;
+		assert id != null;
+
+		Assert.state(PayloadHelper.isEnabled(), "default.error.not-authorised");
+
+		String result;
+
+		result = PayloadHelper.retrieve(request, id);
+		Assert.state(result != null, "default.error.not-authorised");
+
+		return result;
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * AssetHelper.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.helpers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+
+import acme.client.helpers.StringHelper;
+import acme.internals.components.assets.AssetBundler;
+import lombok.CustomLog;
+
+@CustomLog
+public abstract class AssetHelper {
+
+	// Constructors -----------------------------------------------------------
+
+	protected AssetHelper() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private static Properties manifest;
+
+	// Business methods -------------------------------------------------------
+
+
+	public static List<String> getUrls(final String bundle) {
+		assert !StringHelper.isBlank(bundle);
+
+		// HINT: the fingerprinted bundle is used if it was generated at build time and bundling
+		// HINT+ is enabled; otherwise, the individual sources are returned, which is handy to
+		// HINT+ debug them or when the application is run from an IDE.
+
+		List<String> result;
+		boolean enabled;
+		String path, sources;
+
+		enabled = EnvironmentHelper.getProperty("acme.assets.bundling-enabled", Boolean.class, true);
+		path = enabled ? AssetHelper.getManifest().getProperty(bundle) : null;
+		if (path != null)
+			result = List.of(path);
+		else {
+			sources = EnvironmentHelper.getRequiredProperty(AssetBundler.BUNDLE_PREFIX + bundle);
+			result = AssetBundler.split(sources);
+		}
+
+		return result;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static synchronized Properties getManifest() {
+		Properties result;
+		ClassLoader loader;
+
+		if (AssetHelper.manifest == null) {
+			AssetHelper.manifest = new Properties();
+			loader = AssetHelper.class.getClassLoader();
+			try (InputStream stream = loader.getResourceAsStream(AssetBundler.MANIFEST_RESOURCE)) {
+				if (stream == null)
+					AssetHelper.logger.info("No asset bundles were found; the individual assets shall be served.");
+				else
+					try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+						AssetHelper.manifest.load(reader);
+					}
+			} catch (final IOException oops) {
+				AssetHelper.logger.warn("Could not read the asset manifest: {}", oops.getMessage());
+			}
+		}
+		result = AssetHelper.manifest;
+
+		return result;
+	}
+
+}
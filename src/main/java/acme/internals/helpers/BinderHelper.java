@@ -51,6 +51,7 @@ public abstract class BinderHelper {
 		filteredDataset = BinderHelper.buildDataset(rawDataset, inclusions);
 		bindingResult = ReflectionHelper.bind(target, filteredDataset);
 		ErrorsHelper.transferErrors(bindingResult, errors);
+		buffer.addBoundProperties(target, inclusions);
 	}
 
 	public static Dataset unbind(final Object target, final String... properties) {
@@ -0,0 +1,261 @@
+/*
+ * DebugHelper.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.helpers;
+
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.core.env.Profiles;
+import org.springframework.web.util.WebUtils;
+
+import acme.client.data.accounts.Principal;
+import acme.client.helpers.CollectionHelper;
+import acme.client.helpers.JspHelper;
+import acme.client.helpers.MomentHelper;
+import acme.client.helpers.PrincipalHelper;
+import acme.client.helpers.RandomHelper;
+import acme.client.helpers.StringHelper;
+import acme.internals.components.adts.BoundedMap;
+import acme.internals.components.adts.ModelKeyComparator;
+
+public abstract class DebugHelper {
+
+	// HINT: the debug panel used to be computed on every page render and sent with the page.
+	// HINT+ Now, a page just records a snapshot with shallow copies of its request attributes
+	// HINT+ and parameters, and the panel is printed only when it is fetched.  Snapshots are
+	// HINT+ kept per session, so that the users of a shared server do not evict each other's
+	// HINT+ panels.  The whole subsystem is disabled on the production platform.
+
+	// Constructors -----------------------------------------------------------
+
+	protected DebugHelper() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private static final int												MAX_SESSIONS	= 64;
+	private static final int												MAX_SNAPSHOTS	= 16;
+
+	private static final BoundedMap<String, BoundedMap<String, Snapshot>>	snapshots		= new BoundedMap<String, BoundedMap<String, Snapshot>>(DebugHelper.MAX_SESSIONS);
+
+	private static boolean													available;
+
+	static {
+		assert FactoryHelper.isInitialised();
+
+		DebugHelper.available = !FactoryHelper.getEnvironment().acceptsProfiles(Profiles.of("production"));
+	}
+
+	// Business methods -------------------------------------------------------
+
+
+	public static boolean isAvailable() {
+		return DebugHelper.available;
+	}
+
+	public static String computeFlag(final HttpServletRequest request) {
+		assert request != null;
+
+		String result;
+		Cookie cookie;
+
+		result = request.getParameter("debug");
+		if (result == null) {
+			cookie = WebUtils.getCookie(request, "debug");
+			result = cookie != null ? cookie.getValue() : "true";
+		}
+		result = StringHelper.anyOf(result, "true|false") ? result : "true";
+
+		return result;
+	}
+
+	public static boolean isEnabled(final HttpServletRequest request) {
+		assert request != null;
+
+		boolean result;
+
+		result = DebugHelper.isAvailable() && DebugHelper.computeFlag(request).equals("true");
+
+		return result;
+	}
+
+	public static String storeSnapshot(final HttpServletRequest request, final HttpServletResponse response, final boolean full) {
+		assert request != null;
+		assert response != null;
+
+		String result;
+		Snapshot snapshot;
+		Principal principal;
+		Map<String, Object> attributes;
+		Enumeration<String> names;
+		BoundedMap<String, Snapshot> sessionSnapshots;
+
+		result = (String) request.getAttribute("acme.request-id");
+		if (result == null)
+			result = RandomHelper.nextUUID().toString();
+
+		attributes = new LinkedHashMap<String, Object>();
+		names = request.getAttributeNames();
+		for (final String name : CollectionHelper.toIterable(names))
+			attributes.put(name, request.getAttribute(name));
+
+		snapshot = new Snapshot();
+		snapshot.full = full;
+		snapshot.requestForm = ServletHelper.hasRequestForm(request);
+		snapshot.requestParameters = new LinkedHashMap<String, String[]>(request.getParameterMap());
+		snapshot.attributes = attributes;
+
+		principal = PrincipalHelper.get();
+		snapshot.highlights = new LinkedHashMap<String, Object[]>();
+		JspHelper.appendDebugPanelData(snapshot.highlights, "Server moment", MomentHelper.getCurrentMoment());
+		JspHelper.appendDebugPanelData(snapshot.highlights, "Principal", String.format("%s / %s", principal.getUsername(), principal.getActiveRole().getSimpleName()));
+		JspHelper.appendDebugPanelData(snapshot.highlights, "Request locale", JspHelper.getRequestLocale(request));
+		JspHelper.appendDebugPanelData(snapshot.highlights, "Request method", JspHelper.getRequestMethod(request));
+		JspHelper.appendDebugPanelData(snapshot.highlights, "Request URL", JspHelper.getRequestUrl(request));
+
+		sessionSnapshots = DebugHelper.snapshots.computeIfAbsent(DebugHelper.getSnapshotKey(request), key -> new BoundedMap<String, Snapshot>(DebugHelper.MAX_SNAPSHOTS));
+		sessionSnapshots.put(result, snapshot);
+
+		return result;
+	}
+
+	public static Map<String, Map<String, Object[]>> computePanel(final HttpServletRequest request, final String id, final boolean full) {
+		assert request != null;
+		assert !StringHelper.isBlank(id);
+
+		Map<String, Map<String, Object[]>> result;
+		Snapshot snapshot;
+		BoundedMap<String, Snapshot> sessionSnapshots;
+		Map<String, Object[]> highlightData;
+		String requestPayload, responsePayload;
+
+		sessionSnapshots = DebugHelper.snapshots.get(DebugHelper.getSnapshotKey(request));
+		snapshot = sessionSnapshots == null ? null : sessionSnapshots.get(id);
+
+		if (snapshot == null || full && !snapshot.full)
+			result = null;
+		else {
+			requestPayload = snapshot.requestForm ? ServletHelper.computeRequestPayload(snapshot.requestParameters) : "";
+			responsePayload = ServletHelper.computeResponsePayload(snapshot.attributes);
+			highlightData = new LinkedHashMap<String, Object[]>(snapshot.highlights);
+			JspHelper.appendDebugPanelData(highlightData, "Request payload", requestPayload);
+			JspHelper.appendDebugPanelData(highlightData, "Response payload", responsePayload);
+
+			result = new LinkedHashMap<String, Map<String, Object[]>>();
+			result.put("Summary", highlightData);
+			result.putAll(DebugHelper.computeSections(snapshot.attributes, full));
+		}
+
+		return result;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static String getSessionId(final HttpServletRequest request) {
+		assert request != null;
+
+		String result;
+		HttpSession session;
+
+		session = request.getSession(false);
+		result = session == null ? null : session.getId();
+
+		return result;
+	}
+
+	protected static String getSnapshotKey(final HttpServletRequest request) {
+		assert request != null;
+
+		String result;
+
+		result = Objects.toString(DebugHelper.getSessionId(request), "");
+
+		return result;
+	}
+
+	protected static Map<String, Map<String, Object[]>> computeSections(final Map<String, Object> attributes, final boolean full) {
+		assert attributes != null;
+
+		Map<String, Map<String, Object[]>> result;
+		ModelKeyComparator comparator;
+		Map<String, Object[]> userData, userIndexedData, errorData, supportData, internalData, workAreaData, otherData;
+
+		comparator = new ModelKeyComparator();
+		userData = new TreeMap<String, Object[]>(comparator);
+		userIndexedData = new TreeMap<String, Object[]>(comparator);
+		errorData = new TreeMap<String, Object[]>(comparator);
+		supportData = new TreeMap<String, Object[]>(comparator);
+		internalData = new TreeMap<String, Object[]>(comparator);
+		workAreaData = new LinkedHashMap<String, Object[]>();
+		otherData = new TreeMap<String, Object[]>(comparator);
+
+		for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+			String name;
+			Object value;
+
+			name = entry.getKey();
+			value = entry.getValue();
+			if (JspHelper.isSpecialName(name)) {
+				if (full)
+					JspHelper.appendDebugPanelData(otherData, name, value);
+			} else if (StringHelper.anyOf(name, "$request|$buffer|$response"))
+				JspHelper.appendDebugPanelData(workAreaData, name, value);
+			else if (name.startsWith("_"))
+				JspHelper.appendDebugPanelData(supportData, name, value);
+			else if (name.endsWith("$error"))
+				JspHelper.appendDebugPanelData(errorData, name, value);
+			else if (name.contains("$"))
+				JspHelper.appendDebugPanelData(internalData, name, value);
+			else if (!name.contains("["))
+				JspHelper.appendDebugPanelData(userData, name, value);
+			else
+				JspHelper.appendDebugPanelData(userIndexedData, name, value);
+		}
+		userData = new LinkedHashMap<String, Object[]>(userData);
+		userData.putAll(userIndexedData);
+
+		result = new LinkedHashMap<String, Map<String, Object[]>>();
+		result.put("User data", userData);
+		result.put("Error data", errorData);
+		result.put("Support data", supportData);
+		result.put("Internal data", internalData);
+		result.put("Work areas", workAreaData);
+		if (full)
+			result.put("Other data", otherData);
+
+		return result;
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+
+	protected static class Snapshot {
+
+		public boolean					full;
+		public boolean					requestForm;
+		public Map<String, String[]>	requestParameters;
+		public Map<String, Object>		attributes;
+		public Map<String, Object[]>	highlights;
+
+	}
+
+}
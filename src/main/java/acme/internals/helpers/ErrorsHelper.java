@@ -12,7 +12,7 @@
 
 package acme.internals.helpers;
 
-import java.util.Set;
+import java.util.Collection;
 
 import javax.validation.ConstraintViolation;
 
@@ -20,7 +20,6 @@ import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 
-import acme.client.data.AbstractEntity;
 import acme.client.data.models.Errors;
 import acme.client.helpers.CollectionHelper;
 
@@ -52,13 +51,13 @@ public abstract class ErrorsHelper {
 		}
 	}
 
-	public static void transferErrors(final Set<ConstraintViolation<AbstractEntity>> violations, final Errors errors) {
+	public static void transferErrors(final Collection<? extends ConstraintViolation<?>> violations, final Errors errors) {
 		assert !CollectionHelper.someNull(violations);
 		assert errors != null;
 
 		String property, message;
 
-		for (final ConstraintViolation<AbstractEntity> violation : violations) {
+		for (final ConstraintViolation<?> violation : violations) {
 			property = violation.getPropertyPath().toString();
 			message = violation.getMessage();
 			errors.add(property, message);
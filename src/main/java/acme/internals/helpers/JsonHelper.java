@@ -0,0 +1,145 @@
+/*
+ * JsonHelper.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.helpers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import acme.client.data.models.Dataset;
+import acme.client.data.models.Errors;
+import acme.client.data.models.Response;
+import acme.client.helpers.ConversionHelper;
+import acme.client.helpers.PrinterHelper;
+import acme.client.helpers.StringHelper;
+import acme.internals.components.exceptions.PassThroughException;
+import acme.internals.components.tiles.ViewModel;
+
+public abstract class JsonHelper {
+
+	// Constructors -----------------------------------------------------------
+
+	protected JsonHelper() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private static final JsonFactory factory = new JsonFactory();
+
+	// Business methods -------------------------------------------------------
+
+
+	public static void writeResponse(final HttpServletResponse target, final String command, final Response response, final ViewModel viewModel, final Errors errors) {
+		assert target != null;
+		assert !StringHelper.isBlank(command);
+		assert response != null;
+		assert viewModel != null;
+		assert errors != null;
+
+		// HINT: the response is streamed right away, so that neither the view nor an intermediate
+		// HINT+ tree of nodes have to be built.  The data are written as they are shown, i.e., the
+		// HINT+ values that are not numbers or booleans are converted into strings by means of the
+		// HINT+ conversion service, which formats them according to the locale of the request.
+
+		target.setStatus(response.getOops() == null ? HttpStatus.OK.value() : HttpStatus.INTERNAL_SERVER_ERROR.value());
+		target.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		target.setCharacterEncoding("UTF-8");
+
+		try (JsonGenerator generator = JsonHelper.factory.createGenerator(target.getOutputStream(), JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeStringField("command", command);
+			generator.writeStringField("view", response.getView());
+			if (response.getOops() != null)
+				generator.writeStringField("oops", response.getOops().getMessage());
+
+			generator.writeObjectFieldStart("globals");
+			for (final Entry<String, Object> entry : response.getGlobalEntries()) {
+				generator.writeFieldName(entry.getKey());
+				JsonHelper.writeValue(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+
+			generator.writeBooleanField("indexed", viewModel.isIndexed());
+			generator.writeArrayFieldStart("data");
+			for (final Dataset dataset : viewModel)
+				JsonHelper.writeDataset(generator, dataset);
+			generator.writeEndArray();
+
+			generator.writeObjectFieldStart("errors");
+			for (final Entry<String, List<String>> entry : errors) {
+				generator.writeArrayFieldStart(entry.getKey());
+				for (final String message : entry.getValue())
+					generator.writeString(message);
+				generator.writeEndArray();
+			}
+			generator.writeEndObject();
+
+			generator.writeEndObject();
+		} catch (final IOException oops) {
+			throw new PassThroughException(oops);
+		}
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static void writeDataset(final JsonGenerator generator, final Dataset dataset) throws IOException {
+		assert generator != null;
+		assert dataset != null;
+
+		generator.writeStartObject();
+		for (final Entry<String, Object> entry : dataset.entrySet()) {
+			generator.writeFieldName(entry.getKey());
+			JsonHelper.writeValue(generator, entry.getValue());
+		}
+		generator.writeEndObject();
+	}
+
+	protected static void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+		assert generator != null;
+		// HINT: value can be null
+
+		if (value == null)
+			generator.writeNull();
+		else if (value instanceof Boolean)
+			generator.writeBoolean((Boolean) value);
+		else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+			generator.writeNumber(((Number) value).longValue());
+		else if (value instanceof Double || value instanceof Float)
+			generator.writeNumber(((Number) value).doubleValue());
+		else if (value instanceof BigDecimal)
+			generator.writeNumber((BigDecimal) value);
+		else if (value instanceof BigInteger)
+			generator.writeNumber((BigInteger) value);
+		else if (value instanceof String)
+			generator.writeString((String) value);
+		else if (value instanceof Dataset)
+			JsonHelper.writeDataset(generator, (Dataset) value);
+		else if (ConversionHelper.canConvert(value, String.class))
+			generator.writeString(ConversionHelper.convert(value, String.class));
+		else
+			generator.writeString(PrinterHelper.printObject(value, true));
+	}
+
+}
@@ -14,6 +14,9 @@ package acme.internals.helpers;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -23,6 +26,8 @@ import org.springframework.web.servlet.ModelAndView;
 import acme.client.helpers.RandomHelper;
 import acme.client.helpers.StringHelper;
 import acme.client.testing.Oracle;
+import acme.internals.components.database.StatementCounter;
+import acme.internals.components.database.StatementCounter.Scope;
 import acme.internals.helpers.SerialisationHelper.Format;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
@@ -48,6 +53,7 @@ public abstract class LoggerHelper {
 		id = RandomHelper.nextUUID().toString();
 		request.setAttribute("acme.request-id", id);
 		request.setAttribute("acme.timestamps.pre-handle", System.nanoTime());
+		StatementCounter.openScope();
 
 		message = LoggerHelper.buildLogMessage(Format.JSON, request, response, handler, null);
 		LoggerHelper.logger.debug(">> PRE-HANDLE {}", message);
@@ -78,6 +84,7 @@ public abstract class LoggerHelper {
 		String jsonMessage, csvMessage;
 
 		request.setAttribute("acme.timestamps.after-completion", System.nanoTime());
+		LoggerHelper.recordStatements(request);
 
 		jsonMessage = LoggerHelper.buildLogMessage(Format.JSON, request, response, handler, null);
 		LoggerHelper.logger.debug(">> AFTER-COMPLETION {}", jsonMessage);
@@ -86,6 +93,37 @@ public abstract class LoggerHelper {
 		TraceLoggerHelper.log("{}", csvMessage);
 	}
 
+	public static List<String> recordScope(final HttpServletRequest request, final Scope scope, final long statementThreshold, final long rowThreshold, final long timeThreshold, final long repetitionThreshold) {
+		assert request != null;
+		assert scope != null;
+
+		List<String> result;
+		String command;
+
+		// HINT: the statements that a request issues are recorded in its trace; a warning is
+		// HINT+ returned if they exceed the thresholds or if the same statement is repeated so
+		// HINT+ many times that it was most likely issued in a loop, i.e., an N+1 problem.  The
+		// HINT+ time threshold is in milliseconds.
+
+		request.setAttribute("acme.statements.count", scope.getStatements());
+		request.setAttribute("acme.statements.rows", scope.getRows());
+		request.setAttribute("acme.statements.time", scope.getTime());
+		request.setAttribute("acme.statements.repetitions", scope.getRepetitions());
+
+		command = String.format("%s %s", ServletHelper.getRequestMethod(request), ServletHelper.getRequestPath(request, false));
+		result = new ArrayList<String>();
+		if (scope.getStatements() > statementThreshold)
+			result.add(String.format("Request '%s' issued %d statements, which exceeds the threshold of %d.", command, scope.getStatements(), statementThreshold));
+		if (scope.getRows() > rowThreshold)
+			result.add(String.format("Request '%s' read %d rows, which exceeds the threshold of %d.", command, scope.getRows(), rowThreshold));
+		if (scope.getTime() > TimeUnit.MILLISECONDS.toNanos(timeThreshold))
+			result.add(String.format("Request '%s' spent %d ms in JDBC, which exceeds the threshold of %d ms.", command, TimeUnit.NANOSECONDS.toMillis(scope.getTime()), timeThreshold));
+		if (scope.getRepetitions() >= repetitionThreshold)
+			result.add(String.format("Request '%s' repeated the same statement %d times, which suggests an N+1 problem: %s", command, scope.getRepetitions(), scope.getRepeatedShape()));
+
+		return result;
+	}
+
 	public static String formatEvent(final ILoggingEvent event, final String format) {
 		assert event != null;
 		assert !StringHelper.isBlank(format);
@@ -111,6 +149,26 @@ public abstract class LoggerHelper {
 
 	// Ancillary methods ------------------------------------------------------
 
+	private static void recordStatements(final HttpServletRequest request) {
+		assert request != null;
+
+		Scope scope;
+		long statementThreshold, rowThreshold, timeThreshold, repetitionThreshold;
+		List<String> warnings;
+
+		scope = StatementCounter.closeScope();
+		if (scope != null) {
+			statementThreshold = EnvironmentHelper.getRequiredProperty("acme.database.statement-threshold", Long.class);
+			rowThreshold = EnvironmentHelper.getRequiredProperty("acme.database.row-threshold", Long.class);
+			timeThreshold = EnvironmentHelper.getRequiredProperty("acme.database.statement-time-threshold", Long.class);
+			repetitionThreshold = EnvironmentHelper.getRequiredProperty("acme.database.repetition-threshold", Long.class);
+
+			warnings = LoggerHelper.recordScope(request, scope, statementThreshold, rowThreshold, timeThreshold, repetitionThreshold);
+			for (final String warning : warnings)
+				LoggerHelper.logger.warn("{}", warning);
+		}
+	}
+
 	private static String extractDescription(final ILoggingEvent event) {
 		assert event != null;
 
@@ -0,0 +1,128 @@
+/*
+ * PayloadHelper.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.helpers;
+
+import java.util.Objects;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import acme.client.helpers.RandomHelper;
+import acme.client.helpers.StringHelper;
+import acme.internals.components.adts.BoundedMap;
+
+public abstract class PayloadHelper {
+
+	// HINT: the response payload is only required by the tester and the replayer.  When the
+	// HINT+ payload channel is enabled, the pages that are requested with a payload-request
+	// HINT+ header, or that show the debug panel, publish their payload under their request id
+	// HINT+ and return that id in a header, so that the payload can be fetched from a side
+	// HINT+ endpoint within the same session.  Note that the payload cannot be returned in a
+	// HINT+ header, since they are limited in size.  The channel is always enabled on the testing
+	// HINT+ platform and by the tester, since the replayer relies on it; elsewhere, it is disabled
+	// HINT+ unless acme.testing.payload-channel is set, and it is never enabled in production.
+
+	// Constructors -----------------------------------------------------------
+
+	protected PayloadHelper() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	public static final String							REQUEST_HEADER	= "X-Acme-Payload";
+	public static final String							PAYLOAD_HEADER	= "X-Acme-Payload-Id";
+
+	private static final int							MAX_PAYLOADS	= 64;
+
+	private static final BoundedMap<String, Payload>	payloads		= new BoundedMap<String, Payload>(PayloadHelper.MAX_PAYLOADS);
+
+	private static boolean								enabled;
+
+	static {
+		assert FactoryHelper.isInitialised();
+
+		Environment environment;
+
+		environment = FactoryHelper.getEnvironment();
+		PayloadHelper.enabled = !environment.acceptsProfiles(Profiles.of("production")) && //
+			(environment.acceptsProfiles(Profiles.of("testing | tester")) || environment.getProperty("acme.testing.payload-channel", Boolean.class, false));
+	}
+
+	// Business methods -------------------------------------------------------
+
+
+	public static boolean isEnabled() {
+		return PayloadHelper.enabled;
+	}
+
+	public static boolean isRequested(final HttpServletRequest request) {
+		assert request != null;
+
+		boolean result;
+
+		result = PayloadHelper.isEnabled() && //
+			(request.getHeader(PayloadHelper.REQUEST_HEADER) != null || DebugHelper.isEnabled(request));
+
+		return result;
+	}
+
+	public static void publish(final HttpServletRequest request, final HttpServletResponse response) {
+		assert request != null;
+		assert response != null;
+
+		String id;
+		Payload payload;
+
+		if (PayloadHelper.isRequested(request) && !response.isCommitted()) {
+			id = (String) request.getAttribute("acme.request-id");
+			if (id == null)
+				id = RandomHelper.nextUUID().toString();
+			payload = new Payload();
+			payload.sessionId = DebugHelper.getSessionId(request);
+			payload.text = ServletHelper.getResponsePayload(request, response);
+			PayloadHelper.payloads.put(id, payload);
+			response.setHeader(PayloadHelper.PAYLOAD_HEADER, id);
+		}
+	}
+
+	public static String retrieve(final HttpServletRequest request, final String id) {
+		assert request != null;
+		assert !StringHelper.isBlank(id);
+
+		String result;
+		Payload payload;
+
+		payload = PayloadHelper.payloads.get(id);
+		if (payload == null || !Objects.equals(payload.sessionId, DebugHelper.getSessionId(request)))
+			result = null;
+		else
+			result = payload.text;
+
+		return result;
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+
+	protected static class Payload {
+
+		public String	sessionId;
+		public String	text;
+
+	}
+
+}
@@ -14,18 +14,27 @@ package acme.internals.helpers;
 
 import java.beans.PropertyDescriptor;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.persistence.Embeddable;
 import javax.persistence.Entity;
@@ -50,12 +59,20 @@ import acme.client.data.models.Dataset;
 import acme.client.helpers.StringHelper;
 import acme.internals.components.beans.CustomBindingErrorProcessor;
 import acme.internals.components.beans.LocalisedDataBinder;
+import acme.internals.components.reflection.ClassIndexer;
+import lombok.CustomLog;
 
+@CustomLog
 public abstract class ReflectionHelper {
 
 	// Internal state ---------------------------------------------------------
 
-	private static Map<Class<? extends Annotation>, Map<String, Class<?>>> cache;
+	private static Map<Class<? extends Annotation>, Map<String, Class<?>>>	cache;
+
+	// HINT: the index is built by ClassIndexer at build time; it is null if it is not available,
+	// HINT+ in which case the classpath is scanned as usual.
+	private static Map<String, List<String>>								index;
+	private static boolean													indexLoaded;
 
 	static {
 		ReflectionHelper.cache = new LinkedHashMap<Class<? extends Annotation>, Map<String, Class<?>>>();
@@ -589,19 +606,11 @@ public abstract class ReflectionHelper {
 		return result;
 	}
 
-	public static List<BeanDefinition> findEntities() {
-		List<BeanDefinition> result;
-		ClassPathScanningCandidateComponentProvider scanner;
-		AnnotationTypeFilter filter;
-		Set<BeanDefinition> definitions;
-
-		scanner = new ClassPathScanningCandidateComponentProvider(false);
-		filter = new AnnotationTypeFilter(Entity.class);
-		scanner.addIncludeFilter(filter);
-		definitions = scanner.findCandidateComponents("acme");
+	public static synchronized List<Class<?>> findEntities() {
+		List<Class<?>> result;
 
-		result = new ArrayList<BeanDefinition>();
-		result.addAll(definitions);
+		ReflectionHelper.fillCache(Entity.class);
+		result = new ArrayList<Class<?>>(ReflectionHelper.cache.get(Entity.class).values());
 
 		return result;
 	}
@@ -623,7 +632,7 @@ public abstract class ReflectionHelper {
 		return result;
 	}
 
-	private static Class<?> findClazzByAnnotation(final String simpleName, final Class<? extends Annotation> annotation) {
+	private static synchronized Class<?> findClazzByAnnotation(final String simpleName, final Class<? extends Annotation> annotation) {
 		assert !StringHelper.isBlank(simpleName);
 		// HINT: annotation can be null
 
@@ -645,6 +654,8 @@ public abstract class ReflectionHelper {
 		// HINT: annotation can be null
 
 		Map<String, Class<?>> subcache;
+		Map<String, List<String>> clazzIndex;
+		List<String> clazzNames;
 		ClassPathScanningCandidateComponentProvider scanner;
 		Set<BeanDefinition> definitions;
 		AnnotationTypeFilter filter;
@@ -657,17 +668,30 @@ public abstract class ReflectionHelper {
 		}
 
 		if (subcache.isEmpty()) {
-			scanner = new ClassPathScanningCandidateComponentProvider(annotation == null);
-			if (annotation != null) {
-				filter = new AnnotationTypeFilter(annotation);
-				scanner.addIncludeFilter(filter);
+			if (!ReflectionHelper.indexLoaded) {
+				ReflectionHelper.index = ReflectionHelper.loadIndex();
+				ReflectionHelper.indexLoaded = true;
 			}
-			definitions = scanner.findCandidateComponents("acme");
-			for (final BeanDefinition definition : definitions) {
-				String clazzName, simpleName;
+			clazzIndex = ReflectionHelper.index;
+
+			if (annotation != null && clazzIndex != null && clazzIndex.containsKey(annotation.getName()))
+				clazzNames = clazzIndex.get(annotation.getName());
+			else {
+				scanner = new ClassPathScanningCandidateComponentProvider(annotation == null);
+				if (annotation != null) {
+					filter = new AnnotationTypeFilter(annotation);
+					scanner.addIncludeFilter(filter);
+				}
+				definitions = scanner.findCandidateComponents(ClassIndexer.BASE_PACKAGE);
+				clazzNames = new ArrayList<String>();
+				for (final BeanDefinition definition : definitions)
+					clazzNames.add(definition.getBeanClassName());
+			}
+
+			for (final String clazzName : clazzNames) {
+				String simpleName;
 				Class<?> clazz;
 
-				clazzName = definition.getBeanClassName();
 				clazz = ReflectionHelper.getClass(clazzName, null);
 				if (clazz != null) {
 					simpleName = clazz.getSimpleName();
@@ -677,4 +701,111 @@ public abstract class ReflectionHelper {
 		}
 	}
 
+	private static Map<String, List<String>> loadIndex() {
+		Map<String, List<String>> result;
+		ClassLoader loader;
+		Set<String> indexedRoots, packageRoots, missingRoots, staleRoots;
+
+		// HINT: an index covers the classpath root in which it is found, so it can be used only
+		// HINT+ if every root that contains classes in the base package has its own index;
+		// HINT+ otherwise, the classes in the roots without an index would be overlooked.  As
+		// HINT+ usual, System::getProperty is used, since the environment might not be ready.
+		// HINT+ An index in a classes directory is stale if a class in that directory was compiled
+		// HINT+ after it was written, e.g., by an IDE after a Maven build; the classpath is also
+		// HINT+ scanned then, since the new classes would be overlooked, too.  Falling back to a
+		// HINT+ scan is logged, since it usually means that the application does not run
+		// HINT+ ClassIndexer when it is built; see README.txt.
+
+		if (!System.getProperty("acme.reflection.index-enabled", "true").equals("true")) {
+			ReflectionHelper.logger.info("The class index is disabled; the classpath shall be scanned.");
+			result = null;
+		} else
+			try {
+				loader = ReflectionHelper.class.getClassLoader();
+				result = new LinkedHashMap<String, List<String>>();
+				indexedRoots = new HashSet<String>();
+				staleRoots = new HashSet<String>();
+				for (final URL url : Collections.list(loader.getResources(ClassIndexer.INDEX_RESOURCE))) {
+					Properties properties;
+
+					indexedRoots.add(ReflectionHelper.computeRoot(url, ClassIndexer.INDEX_RESOURCE));
+					if (ReflectionHelper.isStale(url))
+						staleRoots.add(ReflectionHelper.computeRoot(url, ClassIndexer.INDEX_RESOURCE));
+					properties = new Properties();
+					try (InputStream stream = url.openStream()) {
+						properties.load(stream);
+					}
+					for (final String name : properties.stringPropertyNames()) {
+						List<String> clazzNames;
+
+						clazzNames = result.computeIfAbsent(name, key -> new ArrayList<String>());
+						for (final String clazzName : properties.getProperty(name).split(","))
+							if (!StringHelper.isBlank(clazzName))
+								clazzNames.add(clazzName.strip());
+					}
+				}
+
+				packageRoots = new HashSet<String>();
+				for (final URL url : Collections.list(loader.getResources(ClassIndexer.BASE_PACKAGE)))
+					packageRoots.add(ReflectionHelper.computeRoot(url, ClassIndexer.BASE_PACKAGE));
+
+				missingRoots = new HashSet<String>(packageRoots);
+				missingRoots.removeAll(indexedRoots);
+				if (indexedRoots.isEmpty() || !missingRoots.isEmpty()) {
+					ReflectionHelper.logger.warn("No class index was found in {}; the classpath shall be scanned.", missingRoots.isEmpty() ? packageRoots : missingRoots);
+					result = null;
+				} else if (!staleRoots.isEmpty()) {
+					ReflectionHelper.logger.warn("The class index in {} is older than some classes; the classpath shall be scanned.", staleRoots);
+					result = null;
+				}
+			} catch (final IOException oops) {
+				ReflectionHelper.logger.warn("Could not read the class index: {}; the classpath shall be scanned.", oops.getMessage());
+				result = null;
+			}
+
+		return result;
+	}
+
+	private static boolean isStale(final URL url) throws IOException {
+		assert url != null;
+
+		boolean result;
+		Path indexFile, packageDirectory;
+		long indexTime;
+
+		// HINT: the indexes in jar files cannot be stale, since jar files are not recompiled.
+
+		if (!url.getProtocol().equals("file"))
+			result = false;
+		else {
+			try {
+				indexFile = Path.of(url.toURI());
+			} catch (final URISyntaxException oops) {
+				throw new IOException(oops);
+			}
+			packageDirectory = indexFile.getParent().getParent().resolve(ClassIndexer.BASE_PACKAGE);
+			indexTime = Files.getLastModifiedTime(indexFile).toMillis();
+			if (!Files.isDirectory(packageDirectory))
+				result = false;
+			else
+				try (Stream<Path> paths = Files.walk(packageDirectory)) {
+					result = paths.anyMatch(path -> path.toString().endsWith(".class") && path.toFile().lastModified() > indexTime);
+				}
+		}
+
+		return result;
+	}
+
+	private static String computeRoot(final URL url, final String resource) {
+		assert url != null;
+		assert !StringHelper.isBlank(resource);
+
+		String result, text;
+
+		text = url.toString();
+		result = text.endsWith(resource) ? text.substring(0, text.length() - resource.length()) : text;
+
+		return result;
+	}
+
 }
@@ -17,6 +17,7 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -26,6 +27,9 @@ import java.util.regex.Pattern;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.web.servlet.HandlerMapping;
 
 import acme.client.helpers.CollectionHelper;
@@ -33,6 +37,7 @@ import acme.client.helpers.ConversionHelper;
 import acme.client.helpers.JspHelper;
 import acme.client.helpers.PrinterHelper;
 import acme.client.helpers.StringHelper;
+import acme.internals.components.tiles.ViewModel;
 
 public abstract class ServletHelper {
 
@@ -48,7 +53,7 @@ public abstract class ServletHelper {
 
 	static {
 		ServletHelper.standardFeaturePattern = Pattern.compile( //
-			"^\\/(?<ROLE>[\\w\\-]+)\\/(?<OBJECT>[\\w\\-]+)\\/(?<COMMAND>[\\w\\-]+)(\\?(?<QUERY>.*))?$", //
+			"^\\/(?<ROLE>[\\w\\-]+)\\/(?<OBJECT>[\\w\\-]+)\\/(?<COMMAND>[\\w\\-]+)(\\.(?<FORMAT>json))?(\\?(?<QUERY>.*))?$", //
 			Pattern.UNICODE_CASE | Pattern.CASE_INSENSITIVE);
 	}
 
@@ -75,16 +80,28 @@ public abstract class ServletHelper {
 	public static Map<String, Object> extractParameters(final HttpServletRequest request) {
 		assert request != null;
 
+		Map<String, Object> result;
+
+		result = ServletHelper.extractParameters(request.getParameterMap());
+
+		return result;
+	}
+
+	public static Map<String, Object> extractParameters(final Map<String, String[]> parameters) {
+		assert parameters != null;
+
 		final Map<String, Object> result;
-		Enumeration<String> names;
 
 		result = new LinkedHashMap<String, Object>();
-		names = request.getParameterNames();
-		for (final String name : CollectionHelper.toIterable(names)) {
+		for (final Map.Entry<String, String[]> entry : parameters.entrySet()) {
+			String name;
+			String[] values;
 			Object object;
 
+			name = entry.getKey();
+			values = entry.getValue();
 			if (!name.contains("$proxy")) {
-				object = request.getParameter(name);
+				object = values == null || values.length == 0 ? null : values[0];
 				result.put(name, object);
 			}
 		}
@@ -293,6 +310,65 @@ public abstract class ServletHelper {
 		return result;
 	}
 
+	public static String getFeatureFormat(final HttpServletRequest request) {
+		assert request != null && ServletHelper.isStandardFeature(request);
+
+		String result;
+		String path;
+
+		path = ServletHelper.getRequestPath(request, true);
+		result = ServletHelper.getFeatureFormat(path);
+
+		return result;
+	}
+
+	public static String getFeatureFormat(final String path) {
+		assert !StringHelper.isBlank(path) && ServletHelper.isStandardFeature(path);
+
+		String result;
+		Matcher matcher;
+
+		matcher = ServletHelper.standardFeaturePattern.matcher(path);
+		assert matcher.find();
+		result = matcher.group("FORMAT");
+		result = result == null ? "" : result.toLowerCase();
+
+		return result;
+	}
+
+	public static boolean isJsonRequested(final HttpServletRequest request) {
+		assert request != null;
+
+		boolean result;
+		String accept;
+		List<MediaType> mediaTypes;
+		MediaType preferred;
+
+		// HINT: a feature is served as JSON if its path has a ".json" extension or if the client
+		// HINT+ prefers JSON to HTML explicitly; wildcards are understood as a preference for
+		// HINT+ HTML, which is what browsers send.
+
+		if (ServletHelper.isStandardFeature(request) && ServletHelper.getFeatureFormat(request).equals("json"))
+			result = true;
+		else {
+			accept = request.getHeader(HttpHeaders.ACCEPT);
+			preferred = null;
+			if (!StringHelper.isBlank(accept))
+				try {
+					mediaTypes = MediaType.parseMediaTypes(accept);
+					MediaType.sortBySpecificityAndQuality(mediaTypes);
+					for (final MediaType mediaType : mediaTypes)
+						if (preferred == null && (mediaType.isCompatibleWith(MediaType.TEXT_HTML) || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)))
+							preferred = mediaType;
+				} catch (final InvalidMediaTypeException oops) {
+					preferred = null;
+				}
+			result = preferred != null && preferred.isCompatibleWith(MediaType.APPLICATION_JSON) && !preferred.isCompatibleWith(MediaType.TEXT_HTML);
+		}
+
+		return result;
+	}
+
 	// Request-projection methods ---------------------------------------------
 
 	public static String getRequestUrl(final HttpServletRequest request) {
@@ -414,25 +490,34 @@ public abstract class ServletHelper {
 		assert request != null;
 
 		String result;
-		Map<String, String> assignments;
-		Enumeration<String> names;
 
 		if (!ServletHelper.hasRequestForm(request))
 			result = "";
-		else {
-			assignments = new LinkedHashMap<String, String>();
+		else
+			result = ServletHelper.computeRequestPayload(request.getParameterMap());
 
-			names = request.getParameterNames();
-			for (final String name : CollectionHelper.toIterable(names)) {
-				String value;
+		return result;
+	}
 
-				if (JspHelper.isRegularName(name) && !name.contains("$") && !name.startsWith("_")) {
-					value = request.getParameter(name);
-					assignments.put(name, value);
-				}
+	// HINT: this method computes the payload from a copy of the request parameters, which
+	// HINT+ allows to compute it once the request is over, e.g., when a debug panel is requested.
+	public static String computeRequestPayload(final Map<String, String[]> parameters) {
+		assert parameters != null;
+
+		String result;
+		Map<String, String> assignments;
+
+		assignments = new LinkedHashMap<String, String>();
+		for (final Map.Entry<String, String[]> entry : parameters.entrySet()) {
+			String name, value;
+
+			name = entry.getKey();
+			if (JspHelper.isRegularName(name) && !name.contains("$") && !name.startsWith("_")) {
+				value = entry.getValue() == null || entry.getValue().length == 0 ? null : entry.getValue()[0];
+				assignments.put(name, value);
 			}
-			result = ServletHelper.encodeQuery(assignments);
 		}
+		result = ServletHelper.encodeQuery(assignments);
 
 		return result;
 	}
@@ -466,29 +551,48 @@ public abstract class ServletHelper {
 		assert response != null;
 
 		String result;
-		Map<String, String> assignments;
+		Map<String, Object> attributes;
 		Enumeration<String> names;
 
 		if (!ServletHelper.hasResponseHtml(response))
 			result = "";
 		else {
-			assignments = new LinkedHashMap<String, String>();
+			attributes = new LinkedHashMap<String, Object>();
 			names = request.getAttributeNames();
-			for (final String name : CollectionHelper.toIterable(names)) {
-				String value;
-				Object object;
+			for (final String name : CollectionHelper.toIterable(names))
+				attributes.put(name, request.getAttribute(name));
+			result = ServletHelper.computeResponsePayload(attributes);
+		}
 
-				if (JspHelper.isRegularName(name) && (!name.contains("$") || name.endsWith("$error")) && !name.startsWith("_")) {
-					object = request.getAttribute(name);
-					if (ConversionHelper.canConvert(object, String.class))
-						value = ConversionHelper.convert(object, String.class);
-					else
-						value = PrinterHelper.printObject(object, true);
-					assignments.put(name, value);
-				}
+		return result;
+	}
+
+	// HINT: this method computes the payload from a snapshot of the request attributes, which
+	// HINT+ allows to compute it once the request is over, e.g., when a debug panel is requested.
+	public static String computeResponsePayload(final Map<String, Object> attributes) {
+		assert attributes != null;
+
+		String result;
+		Map<String, String> assignments;
+
+		// HINT: the data of listings are not flattened into the request attributes, but the
+		// HINT+ payload still reports them as "key[index]" so that existing traces replay as is;
+		// HINT+ they are read from the view model, since the payload is computed only when it
+		// HINT+ is requested.
+
+		assignments = new LinkedHashMap<String, String>();
+		for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+			ViewModel viewModel;
+
+			ServletHelper.appendAssignment(assignments, entry.getKey(), entry.getValue());
+			if (entry.getValue() instanceof ViewModel && !((ViewModel) entry.getValue()).isFlattened()) {
+				viewModel = (ViewModel) entry.getValue();
+				for (int index = 0; index < viewModel.size(); index++)
+					for (final Map.Entry<String, Object> datum : viewModel.get(index).entrySet())
+						ServletHelper.appendAssignment(assignments, ViewModel.computeAttributeName(datum.getKey(), index), datum.getValue());
 			}
-			result = ServletHelper.encodeQuery(assignments);
 		}
+		result = ServletHelper.encodeQuery(assignments);
 
 		return result;
 	}
@@ -527,4 +631,22 @@ public abstract class ServletHelper {
 		return result;
 	}
 
+	// Ancillary methods ------------------------------------------------------
+
+	private static void appendAssignment(final Map<String, String> assignments, final String name, final Object object) {
+		assert assignments != null;
+		assert !StringHelper.isBlank(name);
+		// HINT: object can be null
+
+		String value;
+
+		if (JspHelper.isRegularName(name) && (!name.contains("$") || name.endsWith("$error")) && !name.startsWith("_")) {
+			if (ConversionHelper.canConvert(object, String.class))
+				value = ConversionHelper.convert(object, String.class);
+			else
+				value = PrinterHelper.printObject(object, true);
+			assignments.put(name, value);
+		}
+	}
+
 }
@@ -0,0 +1,127 @@
+/*
+ * ValidationHelper.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import acme.client.data.models.Errors;
+import acme.client.helpers.StringHelper;
+import acme.internals.components.validation.ConstraintMetadata;
+
+public abstract class ValidationHelper {
+
+	// Constructors -----------------------------------------------------------
+
+	protected ValidationHelper() {
+	}
+
+	// Internal state ---------------------------------------------------------
+
+
+	private static final ConcurrentMap<Class<?>, ConstraintMetadata> metadata = new ConcurrentHashMap<Class<?>, ConstraintMetadata>();
+
+	// Business methods -------------------------------------------------------
+
+
+	public static void initialise() {
+		// HINT: the metadata of the entities is computed at start-up; the metadata of other
+		// HINT+ classes, e.g., forms, is computed the first time that they are validated.
+		for (final Class<?> clazz : ReflectionHelper.findEntities())
+			ValidationHelper.getMetadata(clazz);
+	}
+
+	public static ConstraintMetadata getMetadata(final Class<?> clazz) {
+		assert clazz != null;
+
+		ConstraintMetadata result;
+
+		result = ValidationHelper.metadata.computeIfAbsent(clazz, key -> new ConstraintMetadata(ValidationHelper.getValidator().getConstraintsForClass(key)));
+
+		return result;
+	}
+
+	public static void validate(final Object target, final Collection<String> properties, final Errors errors) {
+		assert target != null;
+		assert properties == null || !StringHelper.someBlank(properties);
+		assert errors != null;
+
+		ConstraintMetadata targetMetadata;
+		Set<String> roots;
+		Validator validator;
+		List<ConstraintViolation<Object>> violations;
+		BeanPropertyBindingResult bindingResult;
+
+		// HINT: if the properties that were bound are known, then only the constrained ones are
+		// HINT+ validated; otherwise, or if they cannot be validated on their own, the whole target
+		// HINT+ is validated.
+
+		targetMetadata = ValidationHelper.getMetadata(target.getClass());
+		roots = properties == null ? null : ValidationHelper.computeRoots(properties);
+
+		if (roots != null && targetMetadata.supportsPropertyValidation(roots)) {
+			validator = ValidationHelper.getValidator();
+			violations = new ArrayList<ConstraintViolation<Object>>();
+			for (final String root : roots)
+				if (targetMetadata.getConstrainedProperties().contains(root))
+					violations.addAll(validator.validateProperty(target, root));
+			ErrorsHelper.transferErrors(violations, errors);
+		} else {
+			bindingResult = new BeanPropertyBindingResult(target, StringHelper.toIdentity(target));
+			FactoryHelper.getValidator().validate(target, bindingResult);
+			ErrorsHelper.transferErrors(bindingResult, errors);
+		}
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static Validator getValidator() {
+		Validator result;
+
+		assert FactoryHelper.getValidator() instanceof Validator;
+		result = (Validator) FactoryHelper.getValidator();
+
+		return result;
+	}
+
+	protected static Set<String> computeRoots(final Collection<String> properties) {
+		assert !StringHelper.someBlank(properties);
+
+		Set<String> result;
+
+		// HINT: the properties are bound using kebab names and nested paths, but they are
+		// HINT+ validated using the camel name of the root property.
+
+		result = new LinkedHashSet<String>();
+		for (final String property : properties) {
+			String camelName, root;
+
+			camelName = ReflectionHelper.computeCamelName(property, false);
+			root = camelName.split("[.\\[]", 2)[0];
+			result.add(root);
+		}
+
+		return result;
+	}
+
+}
@@ -12,7 +12,10 @@
 
 package acme.internals.repositories;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import acme.client.data.accounts.UserAccount;
@@ -21,10 +24,15 @@ import acme.client.repositories.AbstractRepository;
 @Repository
 public interface AuthenticationRepository extends AbstractRepository {
 
+	// HINT: user accounts are looked up on every anonymous request and every time a principal
+	// HINT+ is refreshed, so their queries are cached.
+
 	@Query("select ua from UserAccount ua where ua.id = :id")
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	UserAccount findOne(int id);
 
 	@Query("select ua from UserAccount ua where ua.username = :username")
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	UserAccount findByUsername(String username);
 
 }
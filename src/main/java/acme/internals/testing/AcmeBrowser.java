@@ -22,6 +22,7 @@ import org.jsoup.Connection.Response;
 
 import acme.client.helpers.StringHelper;
 import acme.internals.helpers.EnvironmentHelper;
+import acme.internals.helpers.PayloadHelper;
 
 import org.jsoup.Jsoup;
 
@@ -57,26 +58,12 @@ public class AcmeBrowser {
 		// HINT: data can be null		
 
 		Response result;
-		String protocol, host, port, context, separator, url;
 		Connection connection;
 		Throwable auch;
 
 		try {
-			protocol = "http";
-			host = "localhost";
-			port = EnvironmentHelper.getRequiredProperty("server.port", String.class);
-			context = EnvironmentHelper.getRequiredProperty("server.servlet.contextPath", String.class);
-			separator = StringHelper.isBlank(query) ? "" : query.startsWith("?") ? "" : "?";
-			url = String.format("%s://%s:%s%s%s%s%s", protocol, host, port, context, path, separator, query);
-
-			connection = Jsoup.connect(url);
-			connection.cookieStore(this.cookieStore);
-			connection.timeout((int) TimeUnit.MINUTES.toMillis(5));
-			connection.method(Connection.Method.valueOf(method));
-			connection.followRedirects(false);
-			connection.header("Accept", "*/*");
-			connection.ignoreContentType(true);
-			connection.ignoreHttpErrors(true);
+			connection = this.connect(method, path, query);
+			connection.header(PayloadHelper.REQUEST_HEADER, "true");
 
 			if (method.equals("POST")) {
 				if (data != null)
@@ -100,4 +87,59 @@ public class AcmeBrowser {
 		return result;
 	}
 
+	public String fetchPayload(final Response response) {
+		assert response != null;
+
+		// HINT: the payload is fetched from the payload channel, which is much cheaper than
+		// HINT+ parsing the HTML of the response.  An empty payload is returned if the response
+		// HINT+ did not publish any, e.g., because it is not an HTML page.
+
+		String result, id;
+		Response payloadResponse;
+
+		id = response.header(PayloadHelper.PAYLOAD_HEADER);
+		if (StringHelper.isBlank(id))
+			result = "";
+		else {
+			// HINT: this is a side request, so it does not update the CSRF token of the browser.
+			try {
+				payloadResponse = this.connect("GET", "/any/system/payload", String.format("id=%s", id)).execute();
+				result = payloadResponse.statusCode() == 200 ? payloadResponse.body() : "";
+			} catch (final Throwable oops) {
+				result = "";
+			}
+		}
+
+		return result;
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected Connection connect(final String method, final String path, final String query) {
+		assert StringHelper.anyOf(method, "GET|POST");
+		assert !StringHelper.isBlank(path);
+		assert query != null;
+
+		Connection result;
+		String protocol, host, port, context, separator, url;
+
+		protocol = "http";
+		host = "localhost";
+		port = EnvironmentHelper.getRequiredProperty("server.port", String.class);
+		context = EnvironmentHelper.getRequiredProperty("server.servlet.contextPath", String.class);
+		separator = StringHelper.isBlank(query) ? "" : query.startsWith("?") ? "" : "?";
+		url = String.format("%s://%s:%s%s%s%s%s", protocol, host, port, context, path, separator, query);
+
+		result = Jsoup.connect(url);
+		result.cookieStore(this.cookieStore);
+		result.timeout((int) TimeUnit.MINUTES.toMillis(5));
+		result.method(Connection.Method.valueOf(method));
+		result.followRedirects(false);
+		result.header("Accept", "*/*");
+		result.ignoreContentType(true);
+		result.ignoreHttpErrors(true);
+
+		return result;
+	}
+
 }
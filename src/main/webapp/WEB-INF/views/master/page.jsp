@@ -12,7 +12,7 @@
 
 <%@page 
 	pageEncoding="utf-8"
-	import="acme.client.helpers.JspHelper"
+	import="acme.client.helpers.JspHelper, acme.internals.helpers.PayloadHelper"
 %>
 
 <%@taglib prefix="jstl" uri="http://java.sun.com/jsp/jstl/core"%>
@@ -31,26 +31,14 @@
 		<meta name="revisit-after" content="10 days">
 		<meta name="viewport" content="width=device-width, initial-scale=1, shrink-to-fit=yes">
 		<meta name="robots" content="index,nofollow" />
-		<meta name="payload" content="<%=JspHelper.getResponsePayload(request, response)%>">
+		<% PayloadHelper.publish(request, response); %>
 				
 		<link rel="shortcut icon" href="./images/favicon.ico"/>
 		
-		<link rel="stylesheet" href="./libraries/fontawesome/5.2.0/css/all.min.css"/>
-		<link rel="stylesheet" href="./libraries/bootstrap/4.1.3/css/bootstrap.min.css"/>
-		<link rel="stylesheet" href="./libraries/datatables/1.10.18/css/datatables.min.css"/>
+		<!-- Libraries, custom libraries, and styles -->
 		
-		<script type="text/javascript" src="./libraries/jquery/3.3.1/js/jquery.min.js"></script>
-	 	<script type="text/javascript" src="./libraries/popper.js/1.14.4/js/popper.min.js"></script>
-		<script type="text/javascript" src="./libraries/bootstrap/4.1.3/js/bootstrap.min.js"></script>
-		<script type="text/javascript" src="./libraries/datatables/1.10.18/js/jquery.datatables.min.js"></script>
-	 	<script type="text/javascript" src="./libraries/datatables/1.10.18/js/datatables.min.js"></script> 
-		<script type="text/javascript" src="./libraries/chart.js/2.7.2/js/chart.bundle.min.js"></script>
-	 	<script type="text/javascript" src="./libraries/areyousure/1.9.0/js/areyousure.min.js"></script>
-	 		
-		<!-- Custom libraries and styles -->
-		
-		<link rel="stylesheet" href="./libraries/acme/css/acme.css"/>
-		<script type="text/javascript" src="./libraries/acme/js/acme.js"></script>
+		<acme:asset-bundle name="styles"/>
+		<acme:asset-bundle name="scripts"/>
 		
 		<%@include file="../fragments/custom-styles.jsp"%>
 		<%@include file="../fragments/custom-scripts.jsp"%>
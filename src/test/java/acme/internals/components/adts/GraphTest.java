@@ -0,0 +1,116 @@
+/*
+ * GraphTest.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.adts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class GraphTest {
+
+	// HINT: an edge from vertex1 to vertex2 means that vertex1 depends on vertex2.
+
+	// Test methods -----------------------------------------------------------
+
+	@Test
+	public void closeSortsDependenciesFirst() {
+		Graph<String> graph;
+
+		graph = GraphTest.buildGraph("a", "b", "c", "d");
+		graph.addEdge("a", "b");
+		graph.addEdge("b", "c");
+		graph.addEdge("a", "c");
+		graph.close();
+
+		assertEquals(List.of("c", "d", "b", "a"), graph.getOrder());
+		assertEquals(List.of(List.of("c", "d"), List.of("b"), List.of("a")), graph.getLevels());
+		assertTrue(graph.getCycles().isEmpty());
+	}
+
+	@Test
+	public void closeKeepsDisconnectedVerticesInOneLevel() {
+		Graph<String> graph;
+
+		graph = GraphTest.buildGraph("x", "y", "z");
+		graph.close();
+
+		assertEquals(List.of("x", "y", "z"), graph.getOrder());
+		assertEquals(List.of(List.of("x", "y", "z")), graph.getLevels());
+		assertTrue(graph.getCycles().isEmpty());
+	}
+
+	@Test
+	public void closeDetectsSelfLoops() {
+		Graph<String> graph;
+
+		graph = GraphTest.buildGraph("a", "b", "c");
+		graph.addEdge("a", "a");
+		graph.addEdge("c", "a");
+		graph.close();
+
+		assertEquals(List.of("b", "a", "c"), graph.getOrder());
+		assertEquals(List.of(List.of("b")), graph.getLevels());
+		assertEquals(Set.of(List.of("a")), graph.getCycles());
+	}
+
+	@Test
+	public void closeDetectsCyclesAndKeepsEveryVertex() {
+		Graph<String> graph;
+
+		graph = GraphTest.buildGraph("a", "b", "c", "d");
+		graph.addEdge("a", "b");
+		graph.addEdge("b", "a");
+		graph.addEdge("c", "a");
+		graph.close();
+
+		assertEquals(List.of("d", "b", "a", "c"), graph.getOrder());
+		assertEquals(List.of(List.of("d")), graph.getLevels());
+		assertEquals(Set.of(List.of("a", "b")), graph.getCycles());
+	}
+
+	@Test
+	public void closeDetectsSeveralCycles() {
+		Graph<String> graph;
+
+		graph = GraphTest.buildGraph("a", "b", "c", "d", "e");
+		graph.addEdge("a", "b");
+		graph.addEdge("b", "a");
+		graph.addEdge("c", "d");
+		graph.addEdge("d", "e");
+		graph.addEdge("e", "c");
+		graph.close();
+
+		assertEquals(5, graph.getOrder().size());
+		assertTrue(graph.getLevels().isEmpty());
+		assertEquals(Set.of(List.of("a", "b"), List.of("c", "d", "e")), graph.getCycles());
+	}
+
+	// Ancillary methods ------------------------------------------------------
+
+	protected static Graph<String> buildGraph(final String... vertices) {
+		assert vertices != null;
+
+		Graph<String> result;
+
+		result = new Graph<String>();
+		for (final String vertex : vertices)
+			result.addVertex(vertex);
+
+		return result;
+	}
+
+}
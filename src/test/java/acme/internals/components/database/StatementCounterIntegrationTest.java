@@ -0,0 +1,206 @@
+/*
+ * StatementCounterIntegrationTest.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import acme.internals.components.database.StatementCounter.Scope;
+import acme.internals.helpers.LoggerHelper;
+import lombok.Getter;
+import lombok.Setter;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class StatementCounterIntegrationTest {
+
+	// HINT: this test wires the statement counter as it is wired by the framework, but on an
+	// HINT+ embedded database, i.e., Hibernate inspects the statements and the monitored data
+	// HINT+ source counts the rows and the time that they take.
+
+	// Internal state ---------------------------------------------------------
+
+	private static final int		SAMPLES	= 10;
+
+	private JdbcDataSource			database;
+	private ConnectionPoolMetrics	metrics;
+	private SessionFactory			sessionFactory;
+
+	// Lifecycle management ---------------------------------------------------
+
+
+	@BeforeAll
+	public void beforeAll() {
+		Configuration configuration;
+
+		this.database = new JdbcDataSource();
+		this.database.setURL("jdbc:h2:mem:statement-counter;DB_CLOSE_DELAY=-1");
+		this.metrics = new ConnectionPoolMetrics();
+
+		configuration = new Configuration();
+		configuration.addAnnotatedClass(Sample.class);
+		configuration.setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+		configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+		configuration.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+		configuration.setProperty(AvailableSettings.STATEMENT_INSPECTOR, StatementCounter.class.getName());
+		configuration.getProperties().put(AvailableSettings.DATASOURCE, new MonitoredDataSource(this.database, this.metrics, true));
+		this.sessionFactory = configuration.buildSessionFactory();
+
+		try (Session session = this.sessionFactory.openSession()) {
+			session.beginTransaction();
+			for (int id = 1; id <= StatementCounterIntegrationTest.SAMPLES; id++) {
+				Sample sample;
+
+				sample = new Sample();
+				sample.setId(id);
+				sample.setName(String.format("Sample %d", id));
+				session.persist(sample);
+			}
+			session.getTransaction().commit();
+		}
+	}
+
+	@AfterEach
+	public void afterEach() {
+		StatementCounter.closeScope();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@AfterAll
+	public void afterAll() {
+		this.sessionFactory.close();
+		DirtyTableTracker.reset();
+	}
+
+	// Test methods -----------------------------------------------------------
+
+	@Test
+	public void countsStatementsRowsAndTime() {
+		List<Sample> samples;
+		Scope scope;
+
+		StatementCounter.openScope();
+		try (Session session = this.sessionFactory.openSession()) {
+			session.beginTransaction();
+			samples = session.createQuery("select s from Sample s order by s.id", Sample.class).getResultList();
+			session.getTransaction().commit();
+		}
+		scope = StatementCounter.closeScope();
+
+		assertEquals(StatementCounterIntegrationTest.SAMPLES, samples.size());
+		assertEquals(1, scope.getStatements());
+		assertEquals(StatementCounterIntegrationTest.SAMPLES, scope.getRows());
+		assertTrue(scope.getTime() > 0);
+		assertEquals(1, scope.getRepetitions());
+	}
+
+	@Test
+	public void reportsRepeatedStatementsInTheTrace() {
+		MockHttpServletRequest request;
+		Scope scope;
+		List<String> warnings;
+
+		request = new MockHttpServletRequest("GET", "/any/sample/list");
+		request.setServletPath("/any/sample/list");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		StatementCounter.openScope();
+		try (Session session = this.sessionFactory.openSession()) {
+			session.beginTransaction();
+			for (int id = 1; id <= StatementCounterIntegrationTest.SAMPLES; id++)
+				session.get(Sample.class, id);
+			session.getTransaction().commit();
+		}
+		scope = StatementCounter.closeScope();
+		warnings = LoggerHelper.recordScope(request, scope, 5, 5, 60000, 10);
+
+		// HINT: these are the attributes from which the oracle of the request is built.
+
+		assertEquals(10L, request.getAttribute("acme.statements.count"));
+		assertEquals(10L, request.getAttribute("acme.statements.rows"));
+		assertTrue((Long) request.getAttribute("acme.statements.time") > 0);
+		assertEquals(10, request.getAttribute("acme.statements.repetitions"));
+		assertNotNull(request.getAttribute(MonitoredDataSource.WAIT_TIME_ATTRIBUTE));
+		assertNotNull(request.getAttribute(MonitoredDataSource.HOLD_TIME_ATTRIBUTE));
+
+		assertEquals(3, warnings.size());
+		assertTrue(warnings.get(0).startsWith("Request 'GET /any/sample/list' issued 10 statements"));
+		assertTrue(warnings.get(1).startsWith("Request 'GET /any/sample/list' read 10 rows"));
+		assertTrue(warnings.get(2).contains("N+1"));
+		assertTrue(warnings.get(2).contains("from sample"));
+	}
+
+	@Test
+	public void countsNoRowsWithoutInspection() throws Exception {
+		MonitoredDataSource dataSource;
+		Scope scope;
+		int rows;
+
+		dataSource = new MonitoredDataSource(this.database, this.metrics, false);
+
+		StatementCounter.openScope();
+		rows = 0;
+		try (Connection connection = dataSource.getConnection(); //
+			Statement statement = connection.createStatement(); //
+			ResultSet resultSet = statement.executeQuery("select * from sample")) {
+			while (resultSet.next())
+				rows++;
+		}
+		scope = StatementCounter.closeScope();
+
+		assertEquals(StatementCounterIntegrationTest.SAMPLES, rows);
+		assertEquals(0, scope.getStatements());
+		assertEquals(0, scope.getRows());
+		assertEquals(0, scope.getTime());
+	}
+
+	// Ancillary classes ------------------------------------------------------
+
+	@Entity(name = "Sample")
+	@Table(name = "sample")
+	@Getter
+	@Setter
+	public static class Sample {
+
+		@Id
+		private Integer	id;
+
+		private String	name;
+
+	}
+
+}
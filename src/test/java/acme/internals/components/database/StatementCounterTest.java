@@ -0,0 +1,103 @@
+/*
+ * StatementCounterTest.java
+ *
+ * Copyright (C) 2012-2024 Rafael Corchuelo.
+ *
+ * In keeping with the traditional purpose of furthering education and research, it is
+ * the policy of the copyright owner to permit non-commercial use and redistribution of
+ * this software. It has been tested carefully, but it is not guaranteed for any particular
+ * purposes. The copyright owner does not offer any warranties or representations, nor do
+ * they accept any liabilities with respect to them.
+ */
+
+package acme.internals.components.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import acme.internals.components.database.StatementCounter.Scope;
+
+public class StatementCounterTest {
+
+	// HINT: only reads are inspected below, so that the dirty-table tracker is not affected.
+
+	// Lifecycle management ---------------------------------------------------
+
+	@AfterEach
+	public void afterEach() {
+		StatementCounter.closeScope();
+	}
+
+	// Test methods -----------------------------------------------------------
+
+	@Test
+	public void computeShapeReplacesLiterals() {
+		String shape;
+
+		shape = StatementCounter.computeShape("select * from job where id = 42 and title = 'It''s a job' and salary > 1.5");
+		assertEquals("select * from job where id = ? and title = ? and salary > ?", shape);
+	}
+
+	@Test
+	public void computeShapeCollapsesListsAndSpaces() {
+		String shape;
+
+		shape = StatementCounter.computeShape("  SELECT *\n\tFROM job\n WHERE id IN (?, ?,?)  ");
+		assertEquals("select * from job where id in (?)", shape);
+	}
+
+	@Test
+	public void computeShapeKeepsIdentifiersWithDigits() {
+		String shape;
+
+		shape = StatementCounter.computeShape("select j1_0.id from job j1_0 where j1_0.id = 7");
+		assertEquals("select j1_0.id from job j1_0 where j1_0.id = ?", shape);
+	}
+
+	@Test
+	public void closeScopeReportsRepeatedShape() {
+		StatementCounter counter;
+		Scope scope;
+
+		counter = new StatementCounter();
+		StatementCounter.openScope();
+		counter.inspect("select * from company where id = 1");
+		for (int id = 1; id <= 5; id++)
+			counter.inspect(String.format("select * from job where company_id = %d", id));
+		counter.inspect("select * from duty where job_id in (1, 2, 3)");
+		counter.inspect("select * from duty where job_id in (4, 5)");
+		scope = StatementCounter.closeScope();
+
+		assertEquals(8, scope.getStatements());
+		assertEquals(5, scope.getRepetitions());
+		assertEquals("select * from job where company_id = ?", scope.getRepeatedShape());
+	}
+
+	@Test
+	public void closeScopeWithoutRepetitions() {
+		StatementCounter counter;
+		Scope scope;
+
+		counter = new StatementCounter();
+		StatementCounter.openScope();
+		counter.inspect("select * from company where id = 1");
+		scope = StatementCounter.closeScope();
+
+		assertEquals(1, scope.getStatements());
+		assertEquals(1, scope.getRepetitions());
+		assertEquals("select * from company where id = ?", scope.getRepeatedShape());
+	}
+
+	@Test
+	public void closeScopeWithoutOpenScope() {
+		Scope scope;
+
+		scope = StatementCounter.closeScope();
+
+		assertNull(scope);
+	}
+
+}